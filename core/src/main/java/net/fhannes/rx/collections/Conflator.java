@@ -0,0 +1,147 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Collects the latest pending value for each key of a collection and emits all pending values at once on a scheduler.
+ * A value replaces the pending value for the same key, so at most one value is held per key, regardless of how often
+ * the key is changed. The pending values are emitted after the given delay, or as soon as the worker of the scheduler
+ * is available if there is no delay. As the worker does not emit the next values before the observer has processed the
+ * previous ones, a slow observer only receives the latest values.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ */
+final class Conflator<K, V> {
+
+    private final ObservableEmitter<Map<K, V>> emitter;
+    private final Scheduler.Worker worker;
+    private final Supplier<Map<K, V>> factory;
+    private final long delay;
+    private final TimeUnit unit;
+
+    private Map<K, V> pending;
+    private boolean scheduled;
+
+    private Conflator(ObservableEmitter<Map<K, V>> emitter, Scheduler.Worker worker, Supplier<Map<K, V>> factory,
+                      long delay, TimeUnit unit) {
+        this.emitter = emitter;
+        this.worker = worker;
+        this.factory = factory;
+        this.delay = delay;
+        this.unit = unit;
+        this.pending = factory.get();
+    }
+
+    /**
+     * Creates an observable which emits the values collected by a conflator. A conflator is created for every
+     * subscriber and is fed by the given function, which registers a listener on the collection.
+     *
+     * @param register A function which registers a listener feeding the given conflator and returns a
+     *                 {@link Disposable} object which unregisters it.
+     * @param factory Creates the empty maps which hold the pending values.
+     * @param delay The time to wait before the pending values are emitted.
+     * @param unit The unit of the delay.
+     * @param scheduler The scheduler on which the pending values are emitted.
+     * @param <K> The type of keys.
+     * @param <V> The type of values.
+     * @return The {@link Observable} object.
+     */
+    static <K, V> Observable<Map<K, V>> observable(Function<Conflator<K, V>, Disposable> register,
+                                                    Supplier<Map<K, V>> factory, long delay, TimeUnit unit,
+                                                    Scheduler scheduler) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("The delay cannot be negative");
+        }
+        return Observable.create(emitter -> {
+            Scheduler.Worker worker = scheduler.createWorker();
+            Disposable listener = register.apply(new Conflator<>(emitter, worker, factory, delay, unit));
+            emitter.setCancellable(() -> {
+                listener.dispose();
+                worker.dispose();
+            });
+        });
+    }
+
+    /**
+     * Replaces the pending value for the given key.
+     */
+    synchronized void put(K key, V value) {
+        pending.put(key, value);
+        schedule();
+    }
+
+    /**
+     * Discards the pending value for the given key, if any.
+     */
+    synchronized void discard(K key) {
+        pending.remove(key);
+    }
+
+    /**
+     * Discards all pending values.
+     */
+    synchronized void discardAll() {
+        pending.clear();
+    }
+
+    /**
+     * Performs the given action on the map of pending values, e.g. to change its keys.
+     */
+    synchronized void modify(Consumer<? super Map<K, V>> action) {
+        action.accept(pending);
+    }
+
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            if (delay == 0) {
+                worker.schedule(this::drain);
+            } else {
+                worker.schedule(this::drain, delay, unit);
+            }
+        }
+    }
+
+    private void drain() {
+        Map<K, V> values;
+        synchronized (this) {
+            scheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            values = pending;
+            pending = factory.get();
+        }
+        emitter.onNext(Collections.unmodifiableMap(values));
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A view of the elements of a list which satisfy a predicate, in the order of the list. For every element of the
+ * source list, it is stored in a {@link RankTree} whether the element satisfies the predicate, so the index of an
+ * element in the view is the number of elements before it which satisfy the predicate.
+ *
+ * @param <E> The type of elements stored in the list.
+ */
+class FilteredListView<E> extends ObservableListView<E> {
+
+    private final Predicate<? super E> predicate;
+    private final RankTree flags = new RankTree();
+
+    FilteredListView(ObservableList<E> source, Predicate<? super E> predicate) {
+        super(filter(source.getList(), predicate));
+        this.predicate = predicate;
+        for (E e : source.getList()) {
+            flags.insert(flags.size(), predicate.test(e));
+        }
+        follow(source, new ListListener<E>() {
+
+            @Override
+            public void onAdded(int index, E element) {
+                boolean included = predicate.test(element);
+                flags.insert(index, included);
+                if (included) {
+                    insert(flags.rank(index), element);
+                }
+            }
+
+            @Override
+            public void onRemoved(int index, E element) {
+                int rank = flags.rank(index);
+                if (flags.remove(index)) {
+                    delete(rank);
+                }
+            }
+
+            @Override
+            public void onUpdated(int index, E oldElement, E newElement) {
+                boolean included = predicate.test(newElement);
+                int rank = flags.rank(index);
+                boolean wasIncluded = flags.set(index, included);
+                if (wasIncluded && included) {
+                    replace(rank, newElement);
+                } else if (wasIncluded) {
+                    delete(rank);
+                } else if (included) {
+                    insert(rank, newElement);
+                }
+            }
+
+            @Override
+            public void onMoved(int oldIndex, int newIndex, E element) {
+                int rank = flags.rank(oldIndex);
+                boolean included = flags.remove(oldIndex);
+                flags.insert(newIndex, included);
+                if (included) {
+                    relocate(rank, flags.rank(newIndex));
+                }
+            }
+
+            @Override
+            public void onCleared() {
+                flags.clear();
+                reset();
+            }
+
+        });
+    }
+
+    private static <E> List<E> filter(List<E> list, Predicate<? super E> predicate) {
+        List<E> filtered = new ArrayList<>();
+        for (E e : list) {
+            if (predicate.test(e)) {
+                filtered.add(e);
+            }
+        }
+        return filtered;
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import java.util.function.BiFunction;
+
+/**
+ * A view of the join of two maps on their keys, which maps every key of the left map to the result of a function
+ * applied to its values in both maps. An inner join only contains the keys of both maps, while a left outer join
+ * contains all keys of the left map and applies the function to a null value for keys missing from the right map. As
+ * every change of either map only affects a single key of the view, it takes constant time. Null values are treated
+ * as missing values, and a key is removed from the view if the function returns null.
+ * <p>
+ * Changes are applied to the view one at a time, so the maps may be changed by different threads.
+ *
+ * @param <K> The type of keys stored in the maps.
+ * @param <V> The type of values stored in the left map.
+ * @param <W> The type of values stored in the right map.
+ * @param <R> The type of values stored in the view.
+ */
+class JoinedMapView<K, V, W, R> extends ObservableMapView<K, R> {
+
+    private final ObservableMap<K, V> left;
+    private final ObservableMap<K, W> right;
+    private final BiFunction<? super V, ? super W, ? extends R> combiner;
+    private final boolean outer;
+
+    JoinedMapView(ObservableMap<K, V> left, ObservableMap<K, W> right,
+                  BiFunction<? super V, ? super W, ? extends R> combiner, boolean outer) {
+        this.left = left;
+        this.right = right;
+        this.combiner = combiner;
+        this.outer = outer;
+        synchronized (this) {
+            left.getMap().forEach(this::joinLeft);
+            follow(left.addListener(new MapListener<K, V>() {
+
+                @Override
+                public void onAdded(K key, V value) {
+                    synchronized (JoinedMapView.this) {
+                        joinLeft(key, value);
+                    }
+                }
+
+                @Override
+                public void onUpdated(K key, V oldValue, V newValue) {
+                    synchronized (JoinedMapView.this) {
+                        joinLeft(key, newValue);
+                    }
+                }
+
+                @Override
+                public void onRemoved(K key, V value) {
+                    synchronized (JoinedMapView.this) {
+                        store(key, null);
+                    }
+                }
+
+                @Override
+                public void onCleared() {
+                    synchronized (JoinedMapView.this) {
+                        reset();
+                    }
+                }
+
+            }));
+            follow(right.addListener(new MapListener<K, W>() {
+
+                @Override
+                public void onAdded(K key, W value) {
+                    synchronized (JoinedMapView.this) {
+                        joinRight(key, value);
+                    }
+                }
+
+                @Override
+                public void onUpdated(K key, W oldValue, W newValue) {
+                    synchronized (JoinedMapView.this) {
+                        joinRight(key, newValue);
+                    }
+                }
+
+                @Override
+                public void onRemoved(K key, W value) {
+                    synchronized (JoinedMapView.this) {
+                        joinRight(key, null);
+                    }
+                }
+
+                @Override
+                public void onCleared() {
+                    synchronized (JoinedMapView.this) {
+                        if (outer) {
+                            try (Transaction ignored = beginTransaction()) {
+                                left.getMap().forEach((key, value) -> joinRight(key, null));
+                            }
+                        } else {
+                            reset();
+                        }
+                    }
+                }
+
+            }));
+        }
+    }
+
+    /**
+     * Joins the given value of a key in the left map with the value of the key in the right map.
+     */
+    private void joinLeft(K key, V value) {
+        W other = right.getMap().get(key);
+        if (other != null || outer) {
+            store(key, value == null ? null : combiner.apply(value, other));
+        } else {
+            store(key, null);
+        }
+    }
+
+    /**
+     * Joins the given value of a key in the right map, which is null if the key is missing, with the value of the key
+     * in the left map.
+     */
+    private void joinRight(K key, W value) {
+        V other = left.getMap().get(key);
+        if (other != null) {
+            store(key, value != null || outer ? combiner.apply(other, value) : null);
+        }
+    }
+
+}
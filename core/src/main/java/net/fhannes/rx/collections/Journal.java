@@ -0,0 +1,564 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of the changes made to a reactive map or list, which is stored in a directory on disk. Every
+ * change is appended as a record with a sequence number, so the collection can be rebuilt by replaying the journal
+ * when the application is restarted.
+ * <p>
+ * The records are stored in segment files of a fixed size, which are mapped into memory. Once a segment is full, it is
+ * written to disk and a new segment is started, which is named after the sequence number of its first record.
+ * Appending a record only copies it into the mapped memory, which is written to disk by the operating system even if
+ * the application crashes. To survive a crash of the operating system as well, the journal must be flushed, which
+ * writes all records appended since the previous flush to disk at once. This is usually done periodically by
+ * {@link #flushPeriodically(long, TimeUnit, Scheduler)}, so a single flush commits a group of changes.
+ * <p>
+ * Each record is protected by a checksum, so a record which was only partially written before a crash is ignored when
+ * the journal is opened again. A journal only stores the changes made to a single collection, and it is never
+ * compacted, so it keeps growing as long as the collection is changed.
+ */
+public final class Journal implements Closeable {
+
+    /**
+     * The default size of a segment file in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final String EXTENSION = ".journal";
+
+    /**
+     * The number of bytes of the length and checksum of a record, which precede its contents.
+     */
+    private static final int HEADER = 8;
+
+    /**
+     * The number of bytes of the sequence number and type at the start of the contents of a record.
+     */
+    private static final int PREFIX = 9;
+
+    private static final byte MAP_PUT = 1;
+    private static final byte MAP_REMOVE = 2;
+    private static final byte MAP_CLEAR = 3;
+    private static final byte LIST_ADD = 11;
+    private static final byte LIST_REMOVE = 12;
+    private static final byte LIST_SET = 13;
+    private static final byte LIST_MOVE = 14;
+    private static final byte LIST_CLEAR = 15;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final RecordBuffer record = new RecordBuffer();
+    private final DataOutputStream out = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+    private final CompositeDisposable recorders = new CompositeDisposable();
+
+    private MappedByteBuffer segment;
+    private long sequence;
+    private boolean dirty;
+    private boolean closed;
+
+    private Journal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the journal stored in the given directory, using segments of the default size.
+     *
+     * @param directory The given directory, which is created if it does not exist.
+     * @return The {@link Journal} object.
+     * @throws IOException If the journal could not be opened.
+     * @see #open(Path, int)
+     */
+    public static Journal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the journal stored in the given directory. New records are appended after the last complete record in
+     * the journal.
+     *
+     * @param directory The given directory, which is created if it does not exist.
+     * @param segmentSize The size of new segment files in bytes, which limits the size of a single record.
+     * @return The {@link Journal} object.
+     * @throws IOException If the journal could not be opened.
+     */
+    public static Journal open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER + PREFIX) {
+            throw new IllegalArgumentException("The segment size is too small");
+        }
+        Files.createDirectories(directory);
+        Journal journal = new Journal(directory, segmentSize);
+        List<Path> segments = journal.segments();
+        if (segments.isEmpty()) {
+            journal.segment = map(journal.segment(1), segmentSize);
+            return journal;
+        }
+        Path last = segments.get(segments.size() - 1);
+        MappedByteBuffer buffer = map(last, (int) Files.size(last));
+        journal.sequence = first(last) - 1;
+        int position = 0;
+        int length;
+        while ((length = journal.length(buffer, position)) >= 0
+                && buffer.getLong(position + HEADER) == journal.sequence + 1) {
+            journal.sequence++;
+            position += HEADER + length;
+        }
+        // A record which was not fully written may follow the last complete record. Its header is cleared, so it cannot
+        // be mistaken for a record appended now, while any bytes after it are rejected by the checksum of the records
+        if (buffer.capacity() - position >= HEADER) {
+            buffer.putLong(position, 0);
+        }
+        buffer.position(position);
+        journal.segment = buffer;
+        return journal;
+    }
+
+    /**
+     * Returns the sequence number of the last record in the journal, or 0 if the journal is empty.
+     *
+     * @return The sequence number.
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Appends a record to the journal for every entry which is added to, updated in or removed from the given map,
+     * until the returned {@link Disposable} object is disposed. The entries which the map contains when recording
+     * starts are not appended, so the journal should be replayed into an empty map by
+     * {@link #replay(ObservableMap, JournalCodec, JournalCodec)} before its changes are recorded.
+     * <p>
+     * The records are appended synchronously, while the map is changed. If a record cannot be appended, an
+     * {@link UncheckedIOException} is thrown to the code which changed the map.
+     *
+     * @param map The given map.
+     * @param keys The codec used to write the keys of the map.
+     * @param values The codec used to write the values of the map.
+     * @param <K> The type of keys stored in the map.
+     * @param <V> The type of values stored in the map.
+     * @return A {@link Disposable} object which stops recording when it is disposed.
+     * @throws IllegalStateException If the journal is closed.
+     */
+    public <K, V> Disposable record(ObservableMap<K, V> map, JournalCodec<K> keys, JournalCodec<V> values) {
+        Objects.requireNonNull(keys);
+        Objects.requireNonNull(values);
+        return recording(map.addListener(new MapListener<K, V>() {
+            @Override
+            public void onAdded(K key, V value) {
+                append(MAP_PUT, out -> {
+                    write(out, keys, key);
+                    write(out, values, value);
+                });
+            }
+
+            @Override
+            public void onUpdated(K key, V oldValue, V newValue) {
+                onAdded(key, newValue);
+            }
+
+            @Override
+            public void onRemoved(K key, V value) {
+                append(MAP_REMOVE, out -> write(out, keys, key));
+            }
+
+            @Override
+            public void onCleared() {
+                append(MAP_CLEAR, out -> {
+                });
+            }
+        }));
+    }
+
+    /**
+     * Appends a record to the journal for every element which is added to, removed from, updated in or moved within
+     * the given list, until the returned {@link Disposable} object is disposed. The elements which the list contains
+     * when recording starts are not appended, so the journal should be replayed into an empty list by
+     * {@link #replay(ObservableList, JournalCodec)} before its changes are recorded.
+     * <p>
+     * The records are appended synchronously, while the list is changed. If a record cannot be appended, an
+     * {@link UncheckedIOException} is thrown to the code which changed the list.
+     *
+     * @param list The given list.
+     * @param elements The codec used to write the elements of the list.
+     * @param <E> The type of elements stored in the list.
+     * @return A {@link Disposable} object which stops recording when it is disposed.
+     * @throws IllegalStateException If the journal is closed.
+     */
+    public <E> Disposable record(ObservableList<E> list, JournalCodec<E> elements) {
+        Objects.requireNonNull(elements);
+        return recording(list.addListener(new ListListener<E>() {
+            @Override
+            public void onAdded(int index, E element) {
+                append(LIST_ADD, out -> {
+                    out.writeInt(index);
+                    write(out, elements, element);
+                });
+            }
+
+            @Override
+            public void onRemoved(int index, E element) {
+                append(LIST_REMOVE, out -> out.writeInt(index));
+            }
+
+            @Override
+            public void onUpdated(int index, E oldElement, E newElement) {
+                append(LIST_SET, out -> {
+                    out.writeInt(index);
+                    write(out, elements, newElement);
+                });
+            }
+
+            @Override
+            public void onMoved(int oldIndex, int newIndex, E element) {
+                append(LIST_MOVE, out -> {
+                    out.writeInt(oldIndex);
+                    out.writeInt(newIndex);
+                });
+            }
+
+            @Override
+            public void onCleared() {
+                append(LIST_CLEAR, out -> {
+                });
+            }
+        }));
+    }
+
+    private synchronized Disposable recording(Disposable listener) {
+        if (closed) {
+            listener.dispose();
+            throw new IllegalStateException("The journal is closed");
+        }
+        recorders.add(listener);
+        return Disposables.fromAction(() -> recorders.remove(listener));
+    }
+
+    /**
+     * Applies all changes stored in the journal to the given map, in the order in which they were made. The changes
+     * are applied as regular operations on the map, so any observers of the map are notified of them.
+     *
+     * @param map The given map, which should be empty.
+     * @param keys The codec used to read the keys of the map.
+     * @param values The codec used to read the values of the map.
+     * @param <K> The type of keys stored in the map.
+     * @param <V> The type of values stored in the map.
+     * @return The sequence number of the last record which was replayed, or 0 if the journal is empty.
+     * @throws IOException If the journal could not be read, or does not contain the changes of a map.
+     * @throws IllegalStateException If changes are being recorded in the journal.
+     */
+    public <K, V> long replay(ObservableMap<K, V> map, JournalCodec<K> keys, JournalCodec<V> values)
+            throws IOException {
+        return replay((type, in) -> {
+            switch (type) {
+                case MAP_PUT:
+                    map.put(read(in, keys), read(in, values));
+                    break;
+                case MAP_REMOVE:
+                    map.remove(read(in, keys));
+                    break;
+                case MAP_CLEAR:
+                    map.clear();
+                    break;
+                default:
+                    throw new IOException("The journal does not contain the changes of a map");
+            }
+        });
+    }
+
+    /**
+     * Applies all changes stored in the journal to the given list, in the order in which they were made. The changes
+     * are applied as regular operations on the list, so any observers of the list are notified of them.
+     *
+     * @param list The given list, which should be empty.
+     * @param elements The codec used to read the elements of the list.
+     * @param <E> The type of elements stored in the list.
+     * @return The sequence number of the last record which was replayed, or 0 if the journal is empty.
+     * @throws IOException If the journal could not be read, or does not contain the changes of a list.
+     * @throws IllegalStateException If changes are being recorded in the journal.
+     */
+    public <E> long replay(ObservableList<E> list, JournalCodec<E> elements) throws IOException {
+        return replay((type, in) -> {
+            switch (type) {
+                case LIST_ADD:
+                    list.add(in.readInt(), read(in, elements));
+                    break;
+                case LIST_REMOVE:
+                    list.remove(in.readInt());
+                    break;
+                case LIST_SET:
+                    list.set(in.readInt(), read(in, elements));
+                    break;
+                case LIST_MOVE:
+                    int oldIndex = in.readInt();
+                    int newIndex = in.readInt();
+                    // The record contains the new index of the element, rather than the index to insert it before
+                    list.move(oldIndex, newIndex > oldIndex ? newIndex + 1 : newIndex);
+                    break;
+                case LIST_CLEAR:
+                    list.clear();
+                    break;
+                default:
+                    throw new IOException("The journal does not contain the changes of a list");
+            }
+        });
+    }
+
+    private synchronized long replay(RecordHandler handler) throws IOException {
+        if (recorders.size() != 0) {
+            throw new IllegalStateException("Changes are being recorded in the journal");
+        }
+        long last = 0;
+        for (Path path : segments()) {
+            ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            int position = 0;
+            int length;
+            while (last < sequence && (length = length(buffer, position)) >= 0) {
+                long number = buffer.getLong(position + HEADER);
+                if (number != last + 1) {
+                    if (number <= last) {
+                        break;
+                    }
+                    throw new IOException("The records " + (last + 1) + " to " + (number - 1) + " are missing");
+                }
+                ByteBuffer contents = buffer.duplicate();
+                contents.limit(position + HEADER + length).position(position + HEADER + PREFIX);
+                handler.handle(buffer.get(position + HEADER + 8), new DataInputStream(new RecordInput(contents)));
+                last = number;
+                position += HEADER + length;
+            }
+        }
+        if (last != sequence) {
+            throw new IOException("The records " + (last + 1) + " to " + sequence + " are missing");
+        }
+        return last;
+    }
+
+    /**
+     * Writes all records appended since the previous flush to disk.
+     */
+    public void flush() {
+        MappedByteBuffer buffer;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            buffer = segment;
+        }
+        // Records can be appended while the segment is written to disk
+        buffer.force();
+    }
+
+    /**
+     * Flushes the journal periodically on the given scheduler, until the returned {@link Disposable} object is
+     * disposed. If no records were appended during an interval, nothing is written.
+     *
+     * @param interval The time between two flushes.
+     * @param unit The unit of the interval.
+     * @param scheduler The scheduler on which the journal is flushed.
+     * @return A {@link Disposable} object which stops flushing when it is disposed.
+     */
+    public Disposable flushPeriodically(long interval, TimeUnit unit, Scheduler scheduler) {
+        return scheduler.schedulePeriodicallyDirect(this::flush, interval, interval, unit);
+    }
+
+    /**
+     * Stops recording all collections, flushes the journal and closes it.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            recorders.clear();
+            segment.force();
+        }
+    }
+
+    private synchronized void append(byte type, RecordWriter writer) {
+        if (closed) {
+            throw new IllegalStateException("The journal is closed");
+        }
+        try {
+            record.reset();
+            out.writeLong(sequence + 1);
+            out.writeByte(type);
+            writer.write(out);
+            int length = record.size();
+            if (HEADER + length > segmentSize) {
+                throw new IllegalArgumentException("The record does not fit in a segment");
+            }
+            if (segment.remaining() < HEADER + length) {
+                segment.force();
+                segment = map(segment(sequence + 1), segmentSize);
+            }
+            int position = segment.position();
+            segment.position(position + HEADER);
+            segment.put(record.contents());
+            crc.reset();
+            crc.update(record.contents());
+            segment.putInt(position + 4, (int) crc.getValue());
+            // The length is written last, so the record is only valid once it has been written completely
+            segment.putInt(position, length);
+            sequence++;
+            dirty = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the length of the contents of the record at the given position in a segment, or -1 if there is no
+     * complete record at that position.
+     */
+    private int length(ByteBuffer buffer, int position) {
+        if (buffer.capacity() - position < HEADER + PREFIX) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length < PREFIX || length > buffer.capacity() - position - HEADER) {
+            return -1;
+        }
+        ByteBuffer contents = buffer.duplicate();
+        contents.limit(position + HEADER + length).position(position + HEADER);
+        crc.reset();
+        crc.update(contents);
+        return (int) crc.getValue() == buffer.getInt(position + 4) ? length : -1;
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).forEach(segments::add);
+        }
+        // The sequence numbers in the names are padded with zeroes, so they are sorted by sequence number
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private Path segment(long first) {
+        return directory.resolve(String.format("%020d%s", first, EXTENSION));
+    }
+
+    private static long first(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - EXTENSION.length()));
+    }
+
+    private static MappedByteBuffer map(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static <T> void write(DataOutput out, JournalCodec<T> codec, T value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            codec.write(out, value);
+        }
+    }
+
+    private static <T> T read(DataInput in, JournalCodec<T> codec) throws IOException {
+        return in.readBoolean() ? codec.read(in) : null;
+    }
+
+    /**
+     * Writes the data specific to a type of record.
+     */
+    private interface RecordWriter {
+
+        void write(DataOutput out) throws IOException;
+
+    }
+
+    /**
+     * Applies a record to a collection, given its type and the data specific to that type.
+     */
+    private interface RecordHandler {
+
+        void handle(byte type, DataInput in) throws IOException;
+
+    }
+
+    /**
+     * The buffer in which a record is prepared before it is appended, of which the contents can be accessed without
+     * copying them.
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+
+        private ByteBuffer contents() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+
+    }
+
+    /**
+     * Reads the contents of a record from a segment.
+     */
+    private static final class RecordInput extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private RecordInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+    }
+
+}
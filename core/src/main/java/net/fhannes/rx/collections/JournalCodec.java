@@ -0,0 +1,163 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes values to and reads them from the records of a {@link Journal}. Null values are handled by the journal, so a
+ * codec only receives values which are not null.
+ *
+ * @param <T> The type of values.
+ */
+public interface JournalCodec<T> {
+
+    /**
+     * Writes the given value.
+     *
+     * @param out The output to write the value to.
+     * @param value The given value, which is not null.
+     * @throws IOException If the value could not be written.
+     */
+    void write(DataOutput out, T value) throws IOException;
+
+    /**
+     * Reads a value which was written by {@link #write(DataOutput, Object)}.
+     *
+     * @param in The input to read the value from.
+     * @return The value which was read.
+     * @throws IOException If the value could not be read.
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * Returns a codec for strings, which are written as UTF-8.
+     *
+     * @return The {@link JournalCodec} object.
+     */
+    static JournalCodec<String> strings() {
+        return new JournalCodec<String>() {
+            @Override
+            public void write(DataOutput out, String value) throws IOException {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            @Override
+            public String read(DataInput in) throws IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * Returns a codec for integers.
+     *
+     * @return The {@link JournalCodec} object.
+     */
+    static JournalCodec<Integer> integers() {
+        return new JournalCodec<Integer>() {
+            @Override
+            public void write(DataOutput out, Integer value) throws IOException {
+                out.writeInt(value);
+            }
+
+            @Override
+            public Integer read(DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+    }
+
+    /**
+     * Returns a codec for longs.
+     *
+     * @return The {@link JournalCodec} object.
+     */
+    static JournalCodec<Long> longs() {
+        return new JournalCodec<Long>() {
+            @Override
+            public void write(DataOutput out, Long value) throws IOException {
+                out.writeLong(value);
+            }
+
+            @Override
+            public Long read(DataInput in) throws IOException {
+                return in.readLong();
+            }
+        };
+    }
+
+    /**
+     * Returns a codec for doubles.
+     *
+     * @return The {@link JournalCodec} object.
+     */
+    static JournalCodec<Double> doubles() {
+        return new JournalCodec<Double>() {
+            @Override
+            public void write(DataOutput out, Double value) throws IOException {
+                out.writeDouble(value);
+            }
+
+            @Override
+            public Double read(DataInput in) throws IOException {
+                return in.readDouble();
+            }
+        };
+    }
+
+    /**
+     * Returns a codec for serializable values, which uses Java serialization. It can be used for any type of value,
+     * but is considerably slower and produces larger records than a codec written for the type of value.
+     *
+     * @param <T> The type of values.
+     * @return The {@link JournalCodec} object.
+     */
+    static <T extends Serializable> JournalCodec<T> serializable() {
+        return new JournalCodec<T>() {
+            @Override
+            public void write(DataOutput out, T value) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                    objects.writeObject(value);
+                }
+                out.writeInt(bytes.size());
+                out.write(bytes.toByteArray());
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T read(DataInput in) throws IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return (T) objects.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new InvalidClassException(e.getMessage());
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Computes a short edit script which turns one list into another, using the difference algorithm of Eugene W. Myers.
+ * The common prefix and suffix of the lists are skipped, after which the algorithm finds the shortest sequence of
+ * removals and insertions in O((N + M) * D) time and O(D^2) memory, where D is the number of edits. A removal
+ * followed by an insertion at the same position is turned into an update. If the lists differ in more than
+ * {@link #MAX_EDITS} elements, or the search takes more than {@link #MAX_WORK} steps, the remaining elements are
+ * simply updated position by position instead, as the exact script would not be much shorter. Lists of which the
+ * sizes differ by more than {@link #MAX_EDITS} elements are updated position by position right away, as their script
+ * must contain at least that many edits.
+ */
+final class ListDiff {
+
+    static final int MAX_EDITS = 1024;
+    /**
+     * The maximum number of elements compared and diagonals recorded while searching for the shortest script, which
+     * bounds both the time and the memory used by the search.
+     */
+    static final int MAX_WORK = 1 << 20;
+
+    /**
+     * Receives the edits of a script, in order from the start of the list.
+     *
+     * @param <E> The type of elements stored in the lists.
+     */
+    interface Script<E> {
+
+        /**
+         * Called once before any other method, with the index of the first element which is changed.
+         */
+        void start(int index);
+
+        /**
+         * Called when the next element is kept.
+         */
+        void keep();
+
+        /**
+         * Called when the next element is replaced by the given element.
+         */
+        void update(E oldElement, E newElement);
+
+        /**
+         * Called when the next element is removed.
+         */
+        void remove(E oldElement);
+
+        /**
+         * Called when the given element is inserted before the next element.
+         */
+        void insert(E newElement);
+
+    }
+
+    /**
+     * This is a utility class with static methods, it should not be instantiated.
+     */
+    private ListDiff() {
+
+    }
+
+    /**
+     * Computes the edits which turn the first list into the second list and passes them to the given script.
+     *
+     * @return True if the lists differ.
+     */
+    static <E> boolean diff(List<? extends E> from, List<? extends E> to, Script<E> script) {
+        List<? extends E> a = from instanceof RandomAccess ? from : new ArrayList<>(from);
+        List<? extends E> b = to instanceof RandomAccess ? to : new ArrayList<>(to);
+        int prefix = 0;
+        int min = Math.min(a.size(), b.size());
+        while (prefix < min && Objects.equals(a.get(prefix), b.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < min - prefix
+                && Objects.equals(a.get(a.size() - 1 - suffix), b.get(b.size() - 1 - suffix))) {
+            suffix++;
+        }
+        if (prefix == a.size() && prefix == b.size()) {
+            return false;
+        }
+        a = a.subList(prefix, a.size() - suffix);
+        b = b.subList(prefix, b.size() - suffix);
+        script.start(prefix);
+        byte[] edits = edits(a, b);
+        if (edits == null) {
+            for (int i = 0; i < Math.max(a.size(), b.size()); i++) {
+                if (i >= b.size()) {
+                    script.remove(a.get(i));
+                } else if (i >= a.size()) {
+                    script.insert(b.get(i));
+                } else if (Objects.equals(a.get(i), b.get(i))) {
+                    script.keep();
+                } else {
+                    script.update(a.get(i), b.get(i));
+                }
+            }
+        } else {
+            apply(a, b, edits, script);
+        }
+        return true;
+    }
+
+    private static final byte KEEP = 0, REMOVE = 1, INSERT = 2;
+
+    /**
+     * Passes the given edits to the script, turning removals and insertions between the same kept elements into
+     * updates.
+     */
+    private static <E> void apply(List<? extends E> a, List<? extends E> b, byte[] edits, Script<E> script) {
+        int x = 0;
+        int y = 0;
+        int i = 0;
+        while (i < edits.length) {
+            if (edits[i] == KEEP) {
+                script.keep();
+                x++;
+                y++;
+                i++;
+                continue;
+            }
+            int removals = 0;
+            int insertions = 0;
+            for (; i < edits.length && edits[i] != KEEP; i++) {
+                if (edits[i] == REMOVE) {
+                    removals++;
+                } else {
+                    insertions++;
+                }
+            }
+            int updates = Math.min(removals, insertions);
+            for (int j = 0; j < updates; j++) {
+                script.update(a.get(x++), b.get(y++));
+            }
+            for (int j = updates; j < removals; j++) {
+                script.remove(a.get(x++));
+            }
+            for (int j = updates; j < insertions; j++) {
+                script.insert(b.get(y++));
+            }
+        }
+    }
+
+    /**
+     * Returns the shortest edit script which turns the first list into the second list, or null if it contains more
+     * than {@link #MAX_EDITS} removals and insertions or it takes more than {@link #MAX_WORK} steps to find it.
+     */
+    private static byte[] edits(List<?> a, List<?> b) {
+        int n = a.size();
+        int m = b.size();
+        if (Math.abs(n - m) > MAX_EDITS) {
+            return null;
+        }
+        int work = 0;
+        // The furthest x on every diagonal k = x - y, stored at index k + offset
+        int offset = Math.min(n + m, MAX_EDITS) + 1;
+        int[] v = new int[2 * offset + 1];
+        // The diagonals from -d - 1 to d + 1 before each step d, to trace back the path
+        List<int[]> trace = new ArrayList<>();
+        for (int d = 0; d <= n + m; d++) {
+            if (d > MAX_EDITS) {
+                return null;
+            }
+            int[] copy = new int[2 * d + 3];
+            System.arraycopy(v, offset - d - 1, copy, 0, copy.length);
+            trace.add(copy);
+            work += copy.length;
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && Objects.equals(a.get(x), b.get(y))) {
+                    x++;
+                    y++;
+                    work++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    return backtrack(trace, n, m, d);
+                } else if (work > MAX_WORK) {
+                    return null;
+                }
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static byte[] backtrack(List<int[]> trace, int n, int m, int length) {
+        byte[] edits = new byte[(n + m + length) / 2];
+        int e = edits.length;
+        int x = n;
+        int y = m;
+        for (int d = length; d > 0; d--) {
+            int[] v = trace.get(d);
+            int k = x - y;
+            int previousK;
+            if (k == -d || (k != d && v[k - 1 + d + 1] < v[k + 1 + d + 1])) {
+                previousK = k + 1;
+            } else {
+                previousK = k - 1;
+            }
+            int previousX = v[previousK + d + 1];
+            int previousY = previousX - previousK;
+            while (x > previousX && y > previousY) {
+                edits[--e] = KEEP;
+                x--;
+                y--;
+            }
+            edits[--e] = x == previousX ? INSERT : REMOVE;
+            x = previousX;
+            y = previousY;
+        }
+        while (e > 0) {
+            edits[--e] = KEEP;
+        }
+        return edits;
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+/**
+ * A change made to an {@link ObservableList}, as emitted by {@link ObservableList#onEvents()}. A single instance of
+ * this class is reused for all changes of a list, so an event is only valid until the observer which receives it
+ * returns. Observers which need to keep the event must copy the values it contains.
+ *
+ * @param <E> The type of elements stored in the list.
+ */
+public final class ListEvent<E> {
+
+    /**
+     * The kind of change made to the list.
+     */
+    public enum Type {
+        ADDED, REMOVED, UPDATED, MOVED, CLEARED
+    }
+
+    private Type type;
+    private int oldIndex;
+    private int index;
+    private E oldElement;
+    private E element;
+
+    ListEvent() {
+
+    }
+
+    ListEvent<E> set(Type type, int oldIndex, int index, E oldElement, E element) {
+        this.type = type;
+        this.oldIndex = oldIndex;
+        this.index = index;
+        this.oldElement = oldElement;
+        this.element = element;
+        return this;
+    }
+
+    ListEvent<E> clear() {
+        return set(null, -1, -1, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the index of the element before it was moved, or -1 if the element was not moved.
+     *
+     * @return The old index.
+     */
+    public int getOldIndex() {
+        return oldIndex;
+    }
+
+    /**
+     * Returns the index of the element which was added, removed or updated, or the new index of a moved element. If
+     * the list was cleared, this is -1.
+     *
+     * @return The index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the element which was replaced by an update, or null for other types of changes.
+     *
+     * @return The old element.
+     */
+    public E getOldElement() {
+        return oldElement;
+    }
+
+    /**
+     * Returns the element which was added, removed or moved, or the new element of an update. If the list was cleared,
+     * this is null.
+     *
+     * @return The element.
+     */
+    public E getElement() {
+        return element;
+    }
+
+}
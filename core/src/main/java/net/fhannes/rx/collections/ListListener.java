@@ -0,0 +1,79 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+/**
+ * A listener which is notified whenever an {@link ObservableList} is changed. Listeners receive the indices and
+ * elements as arguments, so no event objects have to be created to notify them. They are notified synchronously, at
+ * the moment the list is changed, even while a transaction on the list is in progress.
+ *
+ * @param <E> The type of elements stored in the list.
+ */
+public interface ListListener<E> {
+
+    /**
+     * Called when an element is added to the list.
+     *
+     * @param index The index at which the element was added.
+     * @param element The added element.
+     */
+    default void onAdded(int index, E element) {
+
+    }
+
+    /**
+     * Called when an element is removed from the list.
+     *
+     * @param index The index from which the element was removed.
+     * @param element The removed element.
+     */
+    default void onRemoved(int index, E element) {
+
+    }
+
+    /**
+     * Called when an element in the list is updated with a new value, which may be equal to the old value.
+     *
+     * @param index The index of the updated element.
+     * @param oldElement The old element.
+     * @param newElement The new element.
+     */
+    default void onUpdated(int index, E oldElement, E newElement) {
+
+    }
+
+    /**
+     * Called when an element in the list is moved to a new index.
+     *
+     * @param oldIndex The old index of the element.
+     * @param newIndex The new index of the element.
+     * @param element The moved element.
+     */
+    default void onMoved(int oldIndex, int newIndex, E element) {
+
+    }
+
+    /**
+     * Called when all elements are removed from the list at once.
+     */
+    default void onCleared() {
+
+    }
+
+}
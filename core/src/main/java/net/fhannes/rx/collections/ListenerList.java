@@ -0,0 +1,72 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+
+import java.util.Arrays;
+
+/**
+ * A copy-on-write array of listeners. Registering a listener copies the array, so the listeners can be iterated
+ * without allocating any objects.
+ *
+ * @param <L> The type of listeners.
+ */
+class ListenerList<L> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private volatile Object[] listeners = EMPTY;
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener The given listener.
+     * @return A {@link Disposable} object which unregisters the listener when it is disposed.
+     */
+    synchronized Disposable add(L listener) {
+        Object[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[listeners.length] = listener;
+        listeners = copy;
+        return Disposables.fromAction(() -> remove(listener));
+    }
+
+    private synchronized void remove(L listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                Object[] copy = new Object[listeners.length - 1];
+                System.arraycopy(listeners, 0, copy, 0, i);
+                System.arraycopy(listeners, i + 1, copy, i, listeners.length - i - 1);
+                listeners = copy.length == 0 ? EMPTY : copy;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the registered listeners. The returned array must not be modified.
+     *
+     * @return The array of listeners.
+     */
+    Object[] get() {
+        return listeners;
+    }
+
+}
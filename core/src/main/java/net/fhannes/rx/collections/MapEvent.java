@@ -0,0 +1,91 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+/**
+ * A change made to an {@link ObservableMap}, as emitted by {@link ObservableMap#onEvents()}. A single instance of this
+ * class is reused for all changes of a map, so an event is only valid until the observer which receives it returns.
+ * Observers which need to keep the event must copy the values it contains.
+ *
+ * @param <K> The type of keys stored in the map.
+ * @param <V> The type of values stored in the map.
+ */
+public final class MapEvent<K, V> {
+
+    /**
+     * The kind of change made to the map.
+     */
+    public enum Type {
+        ADDED, UPDATED, REMOVED, CLEARED
+    }
+
+    private Type type;
+    private K key;
+    private V oldValue;
+    private V value;
+
+    MapEvent() {
+
+    }
+
+    MapEvent<K, V> set(Type type, K key, V oldValue, V value) {
+        this.type = type;
+        this.key = key;
+        this.oldValue = oldValue;
+        this.value = value;
+        return this;
+    }
+
+    MapEvent<K, V> clear() {
+        return set(null, null, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the key of the entry which was changed, or null if the map was cleared.
+     *
+     * @return The key.
+     */
+    public K getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the value which was replaced by an update, or null for other types of changes.
+     *
+     * @return The old value.
+     */
+    public V getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Returns the value which was added or removed, or the new value of an update. If the map was cleared, this is
+     * null.
+     *
+     * @return The value.
+     */
+    public V getValue() {
+        return value;
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+/**
+ * A listener which is notified whenever an {@link ObservableMap} is changed. Listeners receive the keys and values as
+ * arguments, so no event objects have to be created to notify them. They are notified synchronously, at the moment the
+ * map is changed, even while a transaction on the map is in progress.
+ *
+ * @param <K> The type of keys stored in the map.
+ * @param <V> The type of values stored in the map.
+ */
+public interface MapListener<K, V> {
+
+    /**
+     * Called when an entry is added to the map.
+     *
+     * @param key The key of the entry.
+     * @param value The value of the entry.
+     */
+    default void onAdded(K key, V value) {
+
+    }
+
+    /**
+     * Called when the value of an entry in the map is replaced.
+     *
+     * @param key The key of the entry.
+     * @param oldValue The old value of the entry.
+     * @param newValue The new value of the entry.
+     */
+    default void onUpdated(K key, V oldValue, V newValue) {
+
+    }
+
+    /**
+     * Called when an entry is removed from the map.
+     *
+     * @param key The key of the entry.
+     * @param value The value of the entry before it was removed.
+     */
+    default void onRemoved(K key, V value) {
+
+    }
+
+    /**
+     * Called when all entries are removed from the map at once.
+     */
+    default void onCleared() {
+
+    }
+
+}
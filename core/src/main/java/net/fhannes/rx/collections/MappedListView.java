@@ -0,0 +1,65 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A view of the results of a function applied to the elements of a list, in the order of the list. The function is
+ * applied once to every element added to or updated in the source list.
+ *
+ * @param <S> The type of elements stored in the source list.
+ * @param <E> The type of elements stored in the view.
+ */
+class MappedListView<S, E> extends ObservableListView<E> {
+
+    MappedListView(ObservableList<S> source, Function<? super S, ? extends E> mapper) {
+        super(source.getList().stream().map(mapper).collect(Collectors.toList()));
+        follow(source, new ListListener<S>() {
+
+            @Override
+            public void onAdded(int index, S element) {
+                insert(index, mapper.apply(element));
+            }
+
+            @Override
+            public void onRemoved(int index, S element) {
+                delete(index);
+            }
+
+            @Override
+            public void onUpdated(int index, S oldElement, S newElement) {
+                replace(index, mapper.apply(newElement));
+            }
+
+            @Override
+            public void onMoved(int oldIndex, int newIndex, S element) {
+                relocate(oldIndex, newIndex);
+            }
+
+            @Override
+            public void onCleared() {
+                reset();
+            }
+
+        });
+    }
+
+}
@@ -36,12 +36,4 @@ public class ObservableArrayList<E> extends ObservableList<E> {
         super(list);
     }
 
-    @Override
-    public void clear() {
-        while (!getList().isEmpty()) {
-            // By removing last element, the internal array can just be resized
-            remove(getList().size() - 1);
-        }
-    }
-
 }
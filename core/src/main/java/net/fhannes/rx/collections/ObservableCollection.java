@@ -18,9 +18,12 @@
  */
 package net.fhannes.rx.collections;
 
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 public interface ObservableCollection<E, C extends Collection<E>> extends Collection<E> {
 
@@ -39,4 +42,32 @@ public interface ObservableCollection<E, C extends Collection<E>> extends Collec
      */
     Observable<C> observableChanges();
 
+    /**
+     * Emits a read-only copy of the collection on subscription and at most one copy per interval afterwards, which is
+     * the latest copy of an interval in which the collection was changed. The copies are created on the thread that
+     * changes the collection, the given scheduler is only used to time the intervals and to emit the copies.
+     *
+     * @param interval The minimum time between two copies.
+     * @param unit The unit of the interval.
+     * @param scheduler The scheduler on which the copies are emitted.
+     * @return The {@link Observable} object.
+     */
+    Observable<C> observableChanges(long interval, TimeUnit unit, Scheduler scheduler);
+
+    /**
+     * Returns a flowable which emits the same values as {@link #observableChanges()}, but buffers at most the given
+     * number of copies for a slow subscriber. As every copy describes the entire collection, a subscriber which misses
+     * copies when using {@link OverflowStrategy#LATEST} or {@link OverflowStrategy#RESYNC} still ends up with the
+     * current contents of the collection. With {@link OverflowStrategy#BUFFER}, the flowable fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException} once the buffer overflows.
+     *
+     * @param strategy What to do when the buffer is full.
+     * @param bufferSize The maximum number of copies in the buffer.
+     * @return The {@link Flowable} object.
+     */
+    default Flowable<C> observableChanges(OverflowStrategy strategy, int bufferSize) {
+        return RxCollections.toFlowable(observableChanges(),
+                strategy == OverflowStrategy.RESYNC ? OverflowStrategy.LATEST : strategy, bufferSize);
+    }
+
 }
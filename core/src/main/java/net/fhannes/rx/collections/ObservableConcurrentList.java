@@ -0,0 +1,481 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.plugins.RxJavaPlugins;
+import net.fhannes.rx.collections.util.PersistentList;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * This class is a reactive list which can be changed by multiple threads at once, without locking. It is a specialized
+ * version of the {@link ObservableList} class, which stores its elements in a {@link PersistentList}.
+ * <p>
+ * Every change replaces the list with a new version by an atomic compare-and-set operation, which assigns the change a
+ * sequence number. The events of all changes are emitted in the order of their sequence numbers, one change at a time,
+ * so observers which replay the events based on their indices always end up with the same list. Events are emitted on
+ * one of the threads changing the list, which is not necessarily the thread which made the change. Reading the list
+ * or iterating over it always uses the latest version, which is never modified afterwards. Observers and listeners
+ * must not change the list themselves, and transactions are not supported.
+ *
+ * @param <E> The type of elements stored in the list.
+ */
+public class ObservableConcurrentList<E> extends ObservableList<E> {
+
+    private final AtomicReference<Version<E>> version;
+    private final Map<Long, Version<E>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    /**
+     * The version of which the events were emitted most recently.
+     */
+    private volatile Version<E> delivered;
+
+    public ObservableConcurrentList() {
+        this(Collections.emptyList());
+    }
+
+    public ObservableConcurrentList(Collection<? extends E> c) {
+        this(new Version<>(PersistentList.of(c), 0, null));
+    }
+
+    private ObservableConcurrentList(Version<E> initial) {
+        super(initial.list);
+        this.version = new AtomicReference<>(initial);
+        this.delivered = initial;
+    }
+
+    @Override
+    List<E> getList() {
+        return version.get().list;
+    }
+
+    @Override
+    List<E> snapshot() {
+        return delivered.list;
+    }
+
+    /**
+     * Returns the sequence number of the change of which the events are being emitted, or were emitted most recently.
+     * While an observer or listener handles an event, this is the sequence number of the change which caused it.
+     *
+     * @return The sequence number.
+     */
+    public long getSequence() {
+        return delivered.sequence;
+    }
+
+    /**
+     * Atomically replaces the current version of the list, which must be the given version, with a new version.
+     *
+     * @return True if the current version was replaced, false if it was changed by another thread in the meantime.
+     */
+    private boolean update(Version<E> current, PersistentList<E> list, Runnable dispatch) {
+        Version<E> next = new Version<>(list, current.sequence + 1, dispatch);
+        if (!version.compareAndSet(current, next)) {
+            return false;
+        }
+        pending.put(next.sequence, next);
+        drain();
+        return true;
+    }
+
+    /**
+     * Emits the events of all pending versions in order of their sequence numbers. Only one thread drains the pending
+     * versions at any time. A version which becomes pending while another thread is draining is emitted by that thread.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Version<E> next;
+            while ((next = pending.remove(delivered.sequence + 1)) != null) {
+                delivered = next;
+                try {
+                    next.dispatch.run();
+                } catch (Throwable t) {
+                    // The events of the other versions must still be emitted, so the error cannot be rethrown here
+                    RxJavaPlugins.onError(t);
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    @Override
+    public boolean add(E element) {
+        Version<E> current;
+        int index;
+        do {
+            current = version.get();
+            index = current.list.size();
+        } while (!update(current, current.list.plus(element), dispatchAdded(index, element)));
+        return true;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        Version<E> current;
+        do {
+            current = version.get();
+        } while (!update(current, current.list.plus(index, element), dispatchAdded(index, element)));
+    }
+
+    private Runnable dispatchAdded(int index, E element) {
+        return () -> {
+            fireAdded(index, element);
+            changed();
+        };
+    }
+
+    @Override
+    public E set(int index, E element) {
+        Version<E> current;
+        E old;
+        do {
+            current = version.get();
+            old = current.list.get(index);
+        } while (!update(current, current.list.with(index, element), dispatchUpdated(index, old, element)));
+        return old;
+    }
+
+    private Runnable dispatchUpdated(int index, E oldElement, E newElement) {
+        return () -> {
+            fireUpdated(index, oldElement, newElement);
+            if (!Objects.equals(oldElement, newElement)) {
+                changed();
+            }
+        };
+    }
+
+    @Override
+    public E remove(int index) {
+        Version<E> current;
+        E old;
+        do {
+            current = version.get();
+            old = current.list.get(index);
+        } while (!update(current, current.list.minus(index), dispatchRemoved(index, old)));
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        Version<E> current;
+        int index;
+        E old;
+        do {
+            current = version.get();
+            index = current.list.indexOf(o);
+            if (index == -1) {
+                return false;
+            }
+            old = current.list.get(index);
+        } while (!update(current, current.list.minus(index), dispatchRemoved(index, old)));
+        return true;
+    }
+
+    private Runnable dispatchRemoved(int index, E element) {
+        return () -> {
+            fireRemoved(index, element);
+            changed();
+        };
+    }
+
+    @Override
+    public boolean move(int oldIndex, int insertIndex) {
+        if (oldIndex == insertIndex) {
+            return false;
+        }
+        Version<E> current;
+        PersistentList<E> list;
+        int newIndex;
+        E element;
+        do {
+            current = version.get();
+            element = current.list.get(oldIndex);
+            list = current.list.minus(oldIndex);
+            newIndex = Math.min(Math.max(insertIndex, 0), list.size() + (oldIndex < insertIndex ? 1 : 0));
+            if (oldIndex < newIndex) {
+                newIndex--;
+            }
+            list = list.plus(newIndex, element);
+        } while (!update(current, list, dispatchMoved(oldIndex, newIndex, element)));
+        return true;
+    }
+
+    private Runnable dispatchMoved(int oldIndex, int newIndex, E element) {
+        return () -> {
+            fireMoved(oldIndex, newIndex, element);
+            changed();
+        };
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        return addAll(-1, c.toArray());
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        return addAll(index, c.toArray());
+    }
+
+    @Override
+    public boolean addAll(E... elements) {
+        return addAll(-1, (Object[]) elements);
+    }
+
+    /**
+     * Inserts the given elements at the given index, or appends them to the list if the index is -1.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean addAll(int index, Object[] elements) {
+        if (elements.length == 0) {
+            return false;
+        }
+        Version<E> current;
+        PersistentList<E> list;
+        int from;
+        do {
+            current = version.get();
+            list = current.list;
+            from = index == -1 ? list.size() : index;
+            for (int i = 0; i < elements.length; i++) {
+                list = list.plus(from + i, (E) elements[i]);
+            }
+        } while (!update(current, list, dispatchAddedAll(from, elements)));
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Runnable dispatchAddedAll(int from, Object[] elements) {
+        return () -> {
+            beginUpdate();
+            for (int i = 0; i < elements.length; i++) {
+                fireAdded(from + i, (E) elements[i]);
+            }
+            endUpdate(true);
+        };
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        Set<Object> objects = new HashSet<>(c);
+        return removeIf(objects::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Set<Object> objects = new HashSet<>(c);
+        return removeIf(o -> !objects.contains(o));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        Version<E> current;
+        List<E> retained;
+        List<Object> removed;
+        do {
+            current = version.get();
+            retained = new ArrayList<>();
+            // Pairs of the index at which an element is removed and the element itself
+            removed = new ArrayList<>();
+            for (E e : current.list) {
+                if (filter.test(e)) {
+                    removed.add(retained.size());
+                    removed.add(e);
+                } else {
+                    retained.add(e);
+                }
+            }
+            if (removed.isEmpty()) {
+                return false;
+            }
+        } while (!update(current, PersistentList.of(retained), dispatchRemovedAll(removed)));
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Runnable dispatchRemovedAll(List<Object> removed) {
+        return () -> {
+            beginUpdate();
+            for (int i = 0; i < removed.size(); i += 2) {
+                fireRemoved((Integer) removed.get(i), (E) removed.get(i + 1));
+            }
+            endUpdate(true);
+        };
+    }
+
+    @Override
+    public void removeRange(int fromIndex, int toIndex) {
+        Version<E> current;
+        PersistentList<E> list;
+        List<Object> removed;
+        do {
+            current = version.get();
+            if (fromIndex < 0 || toIndex > current.list.size() || fromIndex > toIndex) {
+                throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex);
+            }
+            if (fromIndex == toIndex) {
+                return;
+            }
+            list = current.list;
+            removed = new ArrayList<>();
+            for (int i = fromIndex; i < toIndex; i++) {
+                removed.add(fromIndex);
+                removed.add(current.list.get(i));
+                list = list.minus(fromIndex);
+            }
+        } while (!update(current, list, dispatchRemovedAll(removed)));
+    }
+
+    @Override
+    public boolean setAll(List<? extends E> elements) {
+        Version<E> current;
+        List<Runnable> events;
+        do {
+            current = version.get();
+            List<Runnable> script = new ArrayList<>();
+            if (!ListDiff.diff(current.list, elements, new ListDiff.Script<E>() {
+
+                private int index;
+
+                @Override
+                public void start(int index) {
+                    this.index = index;
+                }
+
+                @Override
+                public void keep() {
+                    index++;
+                }
+
+                @Override
+                public void update(E oldElement, E newElement) {
+                    int i = index++;
+                    script.add(() -> fireUpdated(i, oldElement, newElement));
+                }
+
+                @Override
+                public void remove(E oldElement) {
+                    int i = index;
+                    script.add(() -> fireRemoved(i, oldElement));
+                }
+
+                @Override
+                public void insert(E newElement) {
+                    int i = index++;
+                    script.add(() -> fireAdded(i, newElement));
+                }
+
+            })) {
+                return false;
+            }
+            events = script;
+        } while (!update(current, PersistentList.of(elements), dispatchAll(events)));
+        return true;
+    }
+
+    private Runnable dispatchAll(List<Runnable> events) {
+        return () -> {
+            beginUpdate();
+            events.forEach(Runnable::run);
+            endUpdate(true);
+        };
+    }
+
+    @Override
+    public void clear() {
+        Version<E> current;
+        do {
+            current = version.get();
+            if (current.list.isEmpty()) {
+                return;
+            }
+        } while (!update(current, PersistentList.empty(), dispatchCleared(current.list)));
+    }
+
+    private Runnable dispatchCleared(PersistentList<E> list) {
+        return () -> {
+            fireCleared(list);
+            changed();
+        };
+    }
+
+    @Override
+    public ListIterator<E> listIterator() {
+        return getList().listIterator();
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        return getList().listIterator(index);
+    }
+
+    /**
+     * Transactions are not supported by concurrent lists.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public Transaction beginTransaction() {
+        throw new UnsupportedOperationException("Transactions are not supported by concurrent lists");
+    }
+
+    /**
+     * Transactions are not supported by concurrent lists.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void batch(Consumer<? super ObservableList<E>> action) {
+        throw new UnsupportedOperationException("Transactions are not supported by concurrent lists");
+    }
+
+    /**
+     * A version of the list, created by the change with the given sequence number.
+     */
+    private static final class Version<E> {
+
+        private final PersistentList<E> list;
+        private final long sequence;
+        /**
+         * Emits the events of the change which created this version.
+         */
+        private final Runnable dispatch;
+
+        private Version(PersistentList<E> list, long sequence, Runnable dispatch) {
+            this.list = list;
+            this.sequence = sequence;
+            this.dispatch = dispatch;
+        }
+
+    }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+/**
+ * This class is a reactive map which can be changed by multiple threads at once. It is a specialized version of the
+ * {@link ObservableMap} class, which wraps around a {@link ConcurrentHashMap} object.
+ * <p>
+ * Every change is performed as a single atomic operation on the wrapped map, during which it is determined whether an
+ * entry was added, updated or removed and the corresponding events are emitted. As the wrapped map prevents concurrent
+ * changes to the same key, events for the same key are always emitted in the order in which the changes were made.
+ * Changes to different keys are not synchronized with each other. Observers and listeners must not change the map
+ * themselves, and transactions are not supported.
+ *
+ * @param <K> The type of keys stored in the map.
+ * @param <V> The type of values stored in the map.
+ */
+public class ObservableConcurrentMap<K, V> extends ObservableMap<K, V> implements ConcurrentMap<K, V> {
+
+    public ObservableConcurrentMap() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    public ObservableConcurrentMap(ConcurrentHashMap<K, V> map) {
+        super(map, true);
+    }
+
+    @Override
+    ConcurrentHashMap<K, V> getMap() {
+        return (ConcurrentHashMap<K, V>) super.getMap();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+        Object[] previous = new Object[1];
+        getMap().compute(key, (k, old) -> {
+            if (old == null) {
+                fireAdded(k, value);
+            } else {
+                fireUpdated(k, old, value);
+            }
+            previous[0] = old;
+            return value;
+        });
+        changed();
+        return (V) previous[0];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        Object[] previous = new Object[1];
+        getMap().compute(key, (k, old) -> {
+            if (old == null) {
+                fireAdded(k, value);
+                return value;
+            }
+            previous[0] = old;
+            return old;
+        });
+        if (previous[0] == null) {
+            changed();
+        }
+        return (V) previous[0];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        Object[] previous = new Object[1];
+        getMap().computeIfPresent((K) key, (k, old) -> {
+            fireRemoved(k, old);
+            previous[0] = old;
+            return null;
+        });
+        if (previous[0] != null) {
+            changed();
+        }
+        return (V) previous[0];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object key, Object value) {
+        boolean[] removed = new boolean[1];
+        getMap().computeIfPresent((K) key, (k, old) -> {
+            if (!old.equals(value)) {
+                return old;
+            }
+            fireRemoved(k, old);
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
+            changed();
+        }
+        return removed[0];
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(newValue);
+        boolean[] replaced = new boolean[1];
+        getMap().computeIfPresent(key, (k, old) -> {
+            if (!old.equals(oldValue)) {
+                return old;
+            }
+            fireUpdated(k, old, newValue);
+            replaced[0] = true;
+            return newValue;
+        });
+        if (replaced[0]) {
+            changed();
+        }
+        return replaced[0];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value);
+        Object[] previous = new Object[1];
+        getMap().computeIfPresent(key, (k, old) -> {
+            fireUpdated(k, old, value);
+            previous[0] = old;
+            return value;
+        });
+        if (previous[0] != null) {
+            changed();
+        }
+        return (V) previous[0];
+    }
+
+    /**
+     * Computes a new value for the given key by a single atomic operation on the internal map, during which the
+     * corresponding event is emitted.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    V update(K key, BiPredicate<? super K, ? super V> condition,
+             BiFunction<? super K, ? super V, ? extends V> remappingFunction, boolean returnOld) {
+        Object[] previous = new Object[1];
+        boolean[] computed = new boolean[1];
+        V result = getMap().compute(key, (k, old) -> {
+            previous[0] = old;
+            if (!condition.test(k, old)) {
+                return old;
+            }
+            V value = remappingFunction.apply(k, old);
+            if (old == null && value == null) {
+                return null;
+            } else if (old == null) {
+                fireAdded(k, value);
+            } else if (value == null) {
+                fireRemoved(k, old);
+            } else {
+                fireUpdated(k, old, value);
+            }
+            computed[0] = true;
+            return value;
+        });
+        if (computed[0]) {
+            changed();
+        }
+        return returnOld ? (V) previous[0] : result;
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(function);
+        for (K key : getMap().keySet()) {
+            update(key, (k, old) -> old != null, (k, old) -> Objects.requireNonNull(function.apply(k, old)), false);
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        m.forEach(this::put);
+    }
+
+    /**
+     * Removes all entries from the map. As the entries cannot be removed from a concurrent map at once, each entry is
+     * removed individually and no value is emitted by {@link #onCleared()}.
+     */
+    @Override
+    public void clear() {
+        getMap().keySet().forEach(this::remove);
+    }
+
+    /**
+     * Transactions are not supported by concurrent maps.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public Transaction beginTransaction() {
+        throw new UnsupportedOperationException("Transactions are not supported by concurrent maps");
+    }
+
+    /**
+     * Transactions are not supported by concurrent maps.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void batch(Consumer<? super ObservableMap<K, V>> action) {
+        throw new UnsupportedOperationException("Transactions are not supported by concurrent maps");
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import net.fhannes.rx.collections.util.PersistentList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * This class is a reactive index of the elements of an {@link ObservableList}, as returned by
+ * {@link ObservableList#index(Function)}. It maps every key to the group of elements of the list for which the key
+ * function returns that key. The index is built once and then kept up to date by a listener on the list, so every
+ * change to the list only changes the groups of the keys involved. Each change to a group replaces it with a new
+ * read-only list, which is emitted by the observables of the map. Keys are removed from the index once their group is
+ * empty.
+ * <p>
+ * The elements of a group are kept in the order in which they were added to the list, rather than the order of the
+ * list. Besides the groups, the index counts the occurrences of equal elements in each group, so an element is
+ * removed from or replaced in its group in O(log^2 g) time for a group of g elements, without scanning the group.
+ *
+ * @param <K> The type of keys stored in the index.
+ * @param <E> The type of elements stored in the list.
+ */
+public class ObservableIndex<K, E> extends ObservableMapView<K, List<E>> {
+
+    private final Function<? super E, ? extends K> keyFunction;
+    private final Map<K, Group<E>> groups = new HashMap<>();
+    /**
+     * The sequence number of the next element added to the index.
+     */
+    private long sequence = 0;
+
+    ObservableIndex(ObservableList<E> list, Function<? super E, ? extends K> keyFunction) {
+        this.keyFunction = keyFunction;
+        for (E e : list.getList()) {
+            addElement(e);
+        }
+        follow(list.addListener(new ListListener<E>() {
+
+            @Override
+            public void onAdded(int index, E element) {
+                addElement(element);
+            }
+
+            @Override
+            public void onRemoved(int index, E element) {
+                removeElement(element);
+            }
+
+            @Override
+            public void onUpdated(int index, E oldElement, E newElement) {
+                updateElement(oldElement, newElement);
+            }
+
+            @Override
+            public void onCleared() {
+                groups.clear();
+                reset();
+            }
+
+        }));
+    }
+
+    private void addElement(E element) {
+        K key = keyFunction.apply(element);
+        Group<E> group = groups.computeIfAbsent(key, k -> new Group<>());
+        group.add(element, sequence++);
+        store(key, group.elements);
+    }
+
+    private void removeElement(E element) {
+        K key = keyFunction.apply(element);
+        Group<E> group = groups.get(key);
+        if (group == null || !group.remove(element)) {
+            return;
+        }
+        if (group.elements.isEmpty()) {
+            groups.remove(key);
+            store(key, null);
+        } else {
+            store(key, group.elements);
+        }
+    }
+
+    private void updateElement(E oldElement, E newElement) {
+        K oldKey = keyFunction.apply(oldElement);
+        K newKey = keyFunction.apply(newElement);
+        if (!Objects.equals(oldKey, newKey)) {
+            // Moving the element to another group is emitted as a single change of the index
+            try (Transaction ignored = beginTransaction()) {
+                removeElement(oldElement);
+                addElement(newElement);
+            }
+        } else if (oldElement != newElement) {
+            Group<E> group = groups.get(newKey);
+            if (group != null && group.replace(oldElement, newElement)) {
+                store(newKey, group.elements);
+            }
+        }
+    }
+
+    /**
+     * The elements of a group, which are numbered in the order in which they were added to the index. As the sequence
+     * numbers of the elements increase along the group, the position of an element is found by a binary search on its
+     * sequence number. The sequence numbers of equal elements are kept together, so the most recently added of them is
+     * found without scanning the group.
+     */
+    private static final class Group<E> {
+
+        private PersistentList<E> elements = PersistentList.empty();
+        private PersistentList<Long> sequences = PersistentList.empty();
+        private final Map<E, TreeSet<Long>> occurrences = new HashMap<>();
+
+        private void add(E element, long sequence) {
+            elements = elements.plus(element);
+            sequences = sequences.plus(sequence);
+            occurrences.computeIfAbsent(element, e -> new TreeSet<>()).add(sequence);
+        }
+
+        /**
+         * Removes the most recently added element which is equal to the given element.
+         *
+         * @return False if the group contains no such element.
+         */
+        private boolean remove(E element) {
+            Long sequence = take(element);
+            if (sequence == null) {
+                return false;
+            }
+            int index = indexOf(sequence);
+            elements = elements.minus(index);
+            sequences = sequences.minus(index);
+            return true;
+        }
+
+        /**
+         * Replaces the most recently added element which is equal to the old element by the new element.
+         *
+         * @return False if the group contains no such element.
+         */
+        private boolean replace(E oldElement, E newElement) {
+            Long sequence = take(oldElement);
+            if (sequence == null) {
+                return false;
+            }
+            elements = elements.with(indexOf(sequence), newElement);
+            occurrences.computeIfAbsent(newElement, e -> new TreeSet<>()).add(sequence);
+            return true;
+        }
+
+        /**
+         * Removes and returns the largest sequence number of the elements equal to the given element, or null if
+         * there are none.
+         */
+        private Long take(E element) {
+            TreeSet<Long> numbers = occurrences.get(element);
+            if (numbers == null) {
+                return null;
+            }
+            Long sequence = numbers.pollLast();
+            if (numbers.isEmpty()) {
+                occurrences.remove(element);
+            }
+            return sequence;
+        }
+
+        private int indexOf(long sequence) {
+            int low = 0;
+            int high = sequences.size() - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sequences.get(mid) < sequence) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+    }
+
+}
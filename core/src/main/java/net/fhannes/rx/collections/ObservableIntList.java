@@ -0,0 +1,339 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.Observable;
+import io.reactivex.subjects.PublishSubject;
+import net.fhannes.rx.collections.util.IndexedInt;
+import net.fhannes.rx.collections.util.IndexedIntChange;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * This class is a reactive list of primitive {@code int} values. It stores its values in a {@code int[]}
+ * array and emits events which contain the index and values as primitives, so no values are boxed when the list is
+ * changed.
+ */
+public class ObservableIntList extends ObservablePrimitiveList<ObservableIntList.Snapshot> {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] values;
+
+    private PublishSubject<IndexedInt> added = PublishSubject.create();
+    private PublishSubject<IndexedInt> removed = PublishSubject.create();
+    private PublishSubject<IndexedIntChange> updated = PublishSubject.create();
+    private PublishSubject<IndexedIntChange> updatedChanged = PublishSubject.create();
+
+    public ObservableIntList() {
+        super(0);
+        this.values = EMPTY;
+    }
+
+    public ObservableIntList(int initialCapacity) {
+        super(0);
+        this.values = new int[initialCapacity];
+    }
+
+    public ObservableIntList(int[] values) {
+        super(values.length);
+        this.values = values.clone();
+    }
+
+    @Override
+    Object array() {
+        return values;
+    }
+
+    @Override
+    int capacity() {
+        return values.length;
+    }
+
+    @Override
+    void reallocate(int capacity) {
+        values = capacity == 0 ? EMPTY : Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    Snapshot snapshot(int size) {
+        return new Snapshot(values, size);
+    }
+
+    public int get(int index) {
+        checkIndex(index, size());
+        return values[index];
+    }
+
+    public boolean contains(int value) {
+        return indexOf(value) != -1;
+    }
+
+    public int indexOf(int value) {
+        for (int i = 0; i < size(); i++) {
+            if (Integer.compare(values[i], value) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces the value at the given index.
+     *
+     * @param index The given index.
+     * @param value The new value.
+     * @return The value previously stored at the given index.
+     */
+    public int set(int index, int value) {
+        checkIndex(index, size());
+        int old = values[index];
+        boolean changed = Integer.compare(old, value) != 0;
+        if (changed) {
+            prepareSet(index);
+            values[index] = value;
+        }
+        if (updated.hasObservers()) {
+            emit(updated, IndexedIntChange.of(index, old, value));
+        }
+        if (changed) {
+            if (updatedChanged.hasObservers()) {
+                emit(updatedChanged, IndexedIntChange.of(index, old, value));
+            }
+            changed();
+        }
+        return old;
+    }
+
+    /**
+     * Appends a value to the list.
+     *
+     * @param value The given value.
+     */
+    public void add(int value) {
+        add(size(), value);
+    }
+
+    /**
+     * Inserts a value at the given index, shifting the values at and after this index to the right.
+     *
+     * @param index The given index.
+     * @param value The given value.
+     */
+    public void add(int index, int value) {
+        checkIndex(index, size() + 1);
+        insert(index, 1);
+        values[index] = value;
+        if (added.hasObservers()) {
+            emit(added, IndexedInt.of(index, value));
+        }
+        changed();
+    }
+
+    /**
+     * Appends an array of values to the list.
+     *
+     * @param values The array of values as a sequence of arguments of variable length.
+     * @return True if the list was changed.
+     */
+    public boolean addAll(int... values) {
+        if (values.length == 0) {
+            return false;
+        }
+        int index = size();
+        insert(index, values.length);
+        System.arraycopy(values, 0, this.values, index, values.length);
+        beginUpdate();
+        if (added.hasObservers()) {
+            for (int i = 0; i < values.length; i++) {
+                emit(added, IndexedInt.of(index + i, values[i]));
+            }
+        }
+        endUpdate(true);
+        return true;
+    }
+
+    /**
+     * Removes the value at the given index, shifting the values after this index to the left.
+     *
+     * @param index The given index.
+     * @return The removed value.
+     */
+    public int removeAt(int index) {
+        checkIndex(index, size());
+        int old = values[index];
+        delete(index);
+        if (removed.hasObservers()) {
+            emit(removed, IndexedInt.of(index, old));
+        }
+        changed();
+        return old;
+    }
+
+    /**
+     * Returns a copy of the values stored in the list.
+     *
+     * @return The new array.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size());
+    }
+
+    /**
+     * Returns a sequential stream of the values stored in the list.
+     *
+     * @return The {@link IntStream} object.
+     */
+    public IntStream stream() {
+        return Arrays.stream(values, 0, size());
+    }
+
+    /**
+     * Performs the given action on the list within a transaction.
+     *
+     * @param action The action to perform.
+     * @see #beginTransaction()
+     */
+    public void batch(Consumer<? super ObservableIntList> action) {
+        try (Transaction ignored = beginTransaction()) {
+            action.accept(this);
+        }
+    }
+
+    /**
+     * Returns an observable which emits a value when a new value is added to the list. The value emitted is an
+     * {@link IndexedInt} object, which contains the index of the added value in the list and the value itself.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<IndexedInt> onAdded() {
+        return Observable.wrap(added);
+    }
+
+    /**
+     * Returns an observable which emits a value when a value is removed from the list. The value emitted is an
+     * {@link IndexedInt} object, which contains the index of the removed value in the list and the value itself.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<IndexedInt> onRemoved() {
+        return Observable.wrap(removed);
+    }
+
+    /**
+     * Returns an observable which emits a value when a value in the list is replaced. The value emitted is an
+     * {@link IndexedIntChange} object, which contains the index of the value combined with the old and new values.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<IndexedIntChange> onUpdated() {
+        return Observable.wrap(updated);
+    }
+
+    /**
+     * Returns an observable which emits a value when a value in the list is replaced by a different value. The value
+     * emitted is an {@link IndexedIntChange} object, which contains the index of the value combined with the old and
+     * new values.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<IndexedIntChange> onUpdatedChanged() {
+        return Observable.wrap(updatedChanged);
+    }
+
+    /**
+     * A read-only copy of an {@link ObservableIntList}.
+     */
+    public static final class Snapshot {
+
+        private final int[] values;
+        private final int size;
+
+        private Snapshot(int[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public int get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return values[index];
+        }
+
+        /**
+         * Returns a copy of the values stored in the list.
+         *
+         * @return The new array.
+         */
+        public int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        /**
+         * Returns a sequential stream of the values stored in the list.
+         *
+         * @return The {@link IntStream} object.
+         */
+        public IntStream stream() {
+            return Arrays.stream(values, 0, size);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            } else if (!(o instanceof Snapshot) || ((Snapshot) o).size != size) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                if (Integer.compare(values[i], ((Snapshot) o).values[i]) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < size; i++) {
+                hash = 31 * hash + Integer.hashCode(values[i]);
+            }
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(toArray());
+        }
+
+    }
+
+}
@@ -18,13 +18,27 @@
  */
 package net.fhannes.rx.collections;
 
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
-import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
 import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
 import net.fhannes.rx.collections.util.Indexed;
 import net.fhannes.rx.collections.util.IndexedChange;
+import net.fhannes.rx.collections.util.ListChange;
+import net.fhannes.rx.collections.util.PersistentList;
+import net.fhannes.rx.collections.util.SnapshotDelta;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * This class is a reactive list. It is a wrapper around a standard {@link List} object, providing various Observable
@@ -35,18 +49,31 @@ import java.util.*;
 public class ObservableList<E> implements List<E>, ObservableCollection<E, List<E>> {
 
     private List<E> list;
-    private BehaviorSubject<List<E>> items = BehaviorSubject.create();
+    private PersistentList<E> snapshot;
+    private SnapshotSubject<List<E>> items = new SnapshotSubject<>(this::snapshot);
     private PublishSubject<Indexed<E>> added = PublishSubject.create();
     private PublishSubject<Indexed<E>> removed = PublishSubject.create();
     private PublishSubject<IndexedChange<E>> updated = PublishSubject.create();
     private PublishSubject<IndexedChange<E>> updatedChanged = PublishSubject.create();
     private PublishSubject<IndexedChange<E>> moved = PublishSubject.create();
+    private PublishSubject<List<E>> cleared = PublishSubject.create();
+    private PublishSubject<ListChange<E>> changes = PublishSubject.create();
+    private PublishSubject<ListEvent<E>> events = PublishSubject.create();
+    private ListEvent<E> event = new ListEvent<>();
+    private ListenerList<ListListener<? super E>> listeners = new ListenerList<>();
+    private ListenerList<Consumer<? super List<E>>> clearListeners = new ListenerList<>();
 
-    private boolean updating = false;
+    /**
+     * The number of subscribers of {@link #onChanges(OverflowStrategy, int)} which may need to be resynchronized and of
+     * {@link #observableDeltas()}, for which the read-only copy of the list must be kept up to date.
+     */
+    private final AtomicInteger tracking = new AtomicInteger();
+
+    private UpdateTracker updates = new UpdateTracker(this::commit);
+    private ListChange.Builder<E> change;
 
     ObservableList(List<E> list) {
         this.list = list;
-        changed();
     }
 
     /**
@@ -56,21 +83,196 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
         return list;
     }
 
-    private void changed() {
-        if (!updating) {
-            items.onNext(Collections.unmodifiableList(new ArrayList<>(this)));
+    /**
+     * Returns a read-only copy of the list. The copy is only kept up to date while it is being observed, otherwise it
+     * is discarded and recreated from the list when it is requested again.
+     */
+    List<E> snapshot() {
+        if (snapshot == null) {
+            snapshot = PersistentList.of(getList());
+        }
+        return snapshot;
+    }
+
+    void changed() {
+        updates.changed();
+    }
+
+    /**
+     * Emits the changes made to the list and a read-only copy of it, once all updates in progress have ended.
+     */
+    private void commit() {
+        if (change != null) {
+            ListChange<E> c = change.build();
+            change = null;
+            changes.onNext(c);
         }
+        if (!items.hasObservers() && tracking.get() == 0) {
+            snapshot = null;
+        }
+        items.changed();
     }
 
-    private void beginUpdate() {
-        updating = true;
+    /**
+     * Returns the builder used to collect the changes for {@link #onChanges()}, or null if nobody observes them.
+     */
+    private ListChange.Builder<E> change() {
+        if (change == null && changes.hasObservers()) {
+            change = new ListChange.Builder<>();
+        }
+        return change;
     }
 
-    private void endUpdate(boolean changed) {
-        updating = false;
+    /**
+     * Emits the reused {@link ListEvent} object, which is cleared afterwards so it does not retain any elements.
+     */
+    private void fireEvent(ListEvent.Type type, int oldIndex, int index, E oldElement, E element) {
+        events.onNext(event.set(type, oldIndex, index, oldElement, element));
+        event.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    void fireAdded(int index, E element) {
+        if (snapshot != null) {
+            snapshot = snapshot.plus(index, element);
+        }
+        for (Object listener : listeners.get()) {
+            ((ListListener<? super E>) listener).onAdded(index, element);
+        }
+        if (events.hasObservers()) {
+            fireEvent(ListEvent.Type.ADDED, -1, index, null, element);
+        }
+        if (added.hasObservers()) {
+            updates.emit(added, Indexed.of(index, element));
+        }
+        if (change() != null) {
+            change.add(index, element);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void fireRemoved(int index, E element) {
+        if (snapshot != null) {
+            snapshot = snapshot.minus(index);
+        }
+        for (Object listener : listeners.get()) {
+            ((ListListener<? super E>) listener).onRemoved(index, element);
+        }
+        if (events.hasObservers()) {
+            fireEvent(ListEvent.Type.REMOVED, -1, index, null, element);
+        }
+        if (removed.hasObservers()) {
+            updates.emit(removed, Indexed.of(index, element));
+        }
+        if (change() != null) {
+            change.remove(index, element);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void fireUpdated(int index, E oldElement, E newElement) {
+        if (snapshot != null) {
+            snapshot = snapshot.with(index, newElement);
+        }
+        for (Object listener : listeners.get()) {
+            ((ListListener<? super E>) listener).onUpdated(index, oldElement, newElement);
+        }
+        if (events.hasObservers()) {
+            fireEvent(ListEvent.Type.UPDATED, -1, index, oldElement, newElement);
+        }
+        if (updated.hasObservers()) {
+            updates.emit(updated, IndexedChange.of(index, oldElement, index, newElement));
+        }
+        if (!Objects.equals(oldElement, newElement)) {
+            // TODO: Replace with distinctUntilChanged()?
+            if (updatedChanged.hasObservers()) {
+                updates.emit(updatedChanged, IndexedChange.of(index, oldElement, index, newElement));
+            }
+            if (change() != null) {
+                change.replace(index, oldElement, newElement);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void fireMoved(int oldIndex, int newIndex, E element) {
+        if (snapshot != null) {
+            snapshot = snapshot.minus(oldIndex).plus(newIndex, element);
+        }
+        for (Object listener : listeners.get()) {
+            ((ListListener<? super E>) listener).onMoved(oldIndex, newIndex, element);
+        }
+        if (events.hasObservers()) {
+            fireEvent(ListEvent.Type.MOVED, oldIndex, newIndex, null, element);
+        }
+        if (moved.hasObservers()) {
+            updates.emit(moved, IndexedChange.of(oldIndex, element, newIndex, element));
+        }
+        if (change() != null) {
+            change.move(oldIndex, newIndex);
+        }
+    }
+
+    /**
+     * Emits the events for clearing the list. The given contents of the list before it was cleared may be null if
+     * nobody observes them, which is never the case while a clear listener is registered.
+     */
+    @SuppressWarnings("unchecked")
+    void fireCleared(List<E> contents) {
+        if (snapshot != null) {
+            snapshot = PersistentList.empty();
+        }
+        for (Object listener : clearListeners.get()) {
+            ((Consumer<? super List<E>>) listener).accept(contents);
+        }
+        for (Object listener : listeners.get()) {
+            ((ListListener<? super E>) listener).onCleared();
+        }
+        if (events.hasObservers()) {
+            fireEvent(ListEvent.Type.CLEARED, -1, -1, null, null);
+        }
+        if (contents != null) {
+            if (cleared.hasObservers()) {
+                updates.emit(cleared, contents);
+            }
+            if (change() != null) {
+                change.remove(0, contents);
+            }
+        }
+    }
+
+    void beginUpdate() {
+        updates.begin();
+    }
+
+    void endUpdate(boolean changed) {
         if (changed) {
             changed();
         }
+        updates.end();
+    }
+
+    /**
+     * Starts a transaction on the list. Until the transaction is closed, all events are held back. Once the outermost
+     * transaction is closed, these events are emitted, followed by a single value for {@link #onChanges()} and a single
+     * copy for {@link #observableChanges()}. Transactions can be nested.
+     *
+     * @return The {@link Transaction} object, which should be closed to end the transaction.
+     */
+    public Transaction beginTransaction() {
+        return updates.transaction();
+    }
+
+    /**
+     * Performs the given action on the list within a transaction.
+     *
+     * @param action The action to perform.
+     * @see #beginTransaction()
+     */
+    public void batch(Consumer<? super ObservableList<E>> action) {
+        try (Transaction ignored = beginTransaction()) {
+            action.accept(this);
+        }
     }
 
     @Override
@@ -90,7 +292,7 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
 
     @Override
     public Iterator<E> iterator() {
-        return getList().iterator();
+        return listIterator();
     }
 
     @Override
@@ -107,7 +309,7 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
     public boolean add(E o) {
         boolean changed = getList().add(o);
         if (changed) {
-            added.onNext(Indexed.of(getList().size() - 1, o));
+            fireAdded(getList().size() - 1, o);
             changed();
         }
         return changed;
@@ -164,40 +366,101 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
 
     @Override
     public boolean removeAll(Collection<?> c) {
-        boolean changed = false;
-        beginUpdate();
-        for (Object o : c) {
-            while (remove(o)) {
-                changed = true;
-            }
-        }
-        endUpdate(changed);
-        return changed;
+        Set<Object> objects = new HashSet<>(c);
+        return removeIf(objects::contains);
     }
 
     @Override
     public boolean retainAll(Collection<?> c) {
-        boolean changed = false;
         Set<Object> objects = new HashSet<>(c);
-        int idx = 0;
+        return removeIf(o -> !objects.contains(o));
+    }
+
+    /**
+     * Removes all elements which satisfy the given predicate in linear time. The predicate is tested for all elements
+     * before the list is changed, after which the remaining elements are moved to their new index in a single pass.
+     * The removals are emitted as if the elements were removed one by one, starting at the start of the list.
+     *
+     * @param filter The given predicate.
+     * @return True if any elements were removed.
+     */
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+        int[] indices = new int[16];
+        List<E> elements = new ArrayList<>();
+        int index = 0;
+        for (E e : getList()) {
+            if (filter.test(e)) {
+                if (elements.size() == indices.length) {
+                    indices = Arrays.copyOf(indices, indices.length * 2);
+                }
+                indices[elements.size()] = index;
+                elements.add(e);
+            }
+            index++;
+        }
+        if (elements.isEmpty()) {
+            return false;
+        }
+        compact(indices, elements.size());
         beginUpdate();
-        while (idx < getList().size()) {
-            if (!objects.contains(getList().get(idx))) {
-                remove(idx);
-                changed = true;
-            } else {
-                idx++;
+        for (int i = 0; i < elements.size(); i++) {
+            // Each element removed before this one has shifted it one index to the left
+            fireRemoved(indices[i] - i, elements.get(i));
+        }
+        endUpdate(true);
+        return true;
+    }
+
+    /**
+     * Removes the elements at the given ascending indices from the internal list in a single pass.
+     */
+    private void compact(int[] indices, int count) {
+        List<E> list = getList();
+        if (list instanceof RandomAccess) {
+            int size = list.size();
+            int retained = indices[0];
+            int next = 0;
+            for (int i = indices[0]; i < size; i++) {
+                if (next < count && indices[next] == i) {
+                    next++;
+                } else {
+                    list.set(retained++, list.get(i));
+                }
+            }
+            list.subList(retained, size).clear();
+        } else {
+            Iterator<E> it = list.iterator();
+            int next = 0;
+            for (int i = 0; next < count; i++) {
+                it.next();
+                if (indices[next] == i) {
+                    it.remove();
+                    next++;
+                }
             }
         }
-        endUpdate(changed);
-        return changed;
     }
 
+    /**
+     * Removes all elements from the list at once. Instead of emitting a value for each removed element, a single value
+     * is emitted by {@link #onCleared()}.
+     */
     @Override
     public void clear() {
-        while (!getList().isEmpty()) {
-            remove(0);
+        if (getList().isEmpty()) {
+            return;
         }
+        List<E> contents = null;
+        if (snapshot != null) {
+            contents = snapshot;
+        } else if (cleared.hasObservers() || changes.hasObservers() || clearListeners.get().length != 0) {
+            contents = PersistentList.of(getList());
+        }
+        getList().clear();
+        fireCleared(contents);
+        changed();
     }
 
     @Override
@@ -208,10 +471,8 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
     @Override
     public E set(int index, E element) {
         E old = getList().set(index, element);
-        updated.onNext(IndexedChange.of(index, old, index, element));
+        fireUpdated(index, old, element);
         if (!Objects.equals(old, element)) {
-            // TODO: Replace with distinctUntilChanged()?
-            updatedChanged.onNext(IndexedChange.of(index, old, index, element));
             changed();
         }
         return old;
@@ -220,14 +481,14 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
     @Override
     public void add(int index, E element) {
         getList().add(index, element);
-        added.onNext(Indexed.of(index, element));
+        fireAdded(index, element);
         changed();
     }
 
     @Override
     public E remove(int index) {
         E old = getList().remove(index);
-        removed.onNext(Indexed.of(index, old));
+        fireRemoved(index, old);
         changed();
         return old;
     }
@@ -244,17 +505,142 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
 
     @Override
     public ListIterator<E> listIterator() {
-        return getList().listIterator();
+        return listIterator(0);
     }
 
+    /**
+     * Returns a list iterator over the elements of the list, which emits the appropriate events when the list is
+     * modified through it. Modifications are applied at the cursor of the internal list's iterator, so they take
+     * constant time for linked lists.
+     *
+     * @param index The index of the first element to be returned by {@link ListIterator#next()}.
+     * @return The {@link ListIterator} object.
+     */
     @Override
     public ListIterator<E> listIterator(int index) {
-        return getList().listIterator(index);
+        return new ObservableListIterator(getList().listIterator(index));
     }
 
+    /**
+     * Returns an observable view of the elements between the given indices. Changes made through the view are emitted
+     * by the list, and the view emits the events of the list within its range with indices relative to the view.
+     *
+     * @param fromIndex The index of the first element of the view, inclusive.
+     * @param toIndex   The index of the last element of the view, exclusive.
+     * @return The {@link ObservableSubList} object.
+     */
     @Override
-    public List<E> subList(int fromIndex, int toIndex) {
-        return getList().subList(fromIndex, toIndex);
+    public ObservableSubList<E> subList(int fromIndex, int toIndex) {
+        return new ObservableSubList<>(this, fromIndex, toIndex);
+    }
+
+    /**
+     * Removes all elements between the given indices. The removals are emitted as a single range, as if the elements
+     * were removed one by one at the start of the range.
+     *
+     * @param fromIndex The index of the first element to be removed, inclusive.
+     * @param toIndex   The index of the last element to be removed, exclusive.
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        List<E> range = getList().subList(fromIndex, toIndex);
+        if (range.isEmpty()) {
+            return;
+        }
+        List<E> elements = new ArrayList<>(range);
+        range.clear();
+        beginUpdate();
+        for (E e : elements) {
+            fireRemoved(fromIndex, e);
+        }
+        endUpdate(true);
+    }
+
+    /**
+     * A list iterator which wraps around an iterator of the internal list and emits events for the modifications made
+     * through it.
+     */
+    private class ObservableListIterator implements ListIterator<E> {
+
+        private final ListIterator<E> it;
+        private int lastIndex = -1;
+        private E lastElement;
+
+        ObservableListIterator(ListIterator<E> it) {
+            this.it = it;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public E next() {
+            int index = it.nextIndex();
+            lastElement = it.next();
+            lastIndex = index;
+            return lastElement;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return it.hasPrevious();
+        }
+
+        @Override
+        public E previous() {
+            int index = it.previousIndex();
+            lastElement = it.previous();
+            lastIndex = index;
+            return lastElement;
+        }
+
+        @Override
+        public int nextIndex() {
+            return it.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+            return it.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            it.remove();
+            fireRemoved(lastIndex, lastElement);
+            changed();
+            lastIndex = -1;
+            lastElement = null;
+        }
+
+        @Override
+        public void set(E e) {
+            if (lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            it.set(e);
+            E old = lastElement;
+            lastElement = e;
+            fireUpdated(lastIndex, old, e);
+            if (!Objects.equals(old, e)) {
+                changed();
+            }
+        }
+
+        @Override
+        public void add(E e) {
+            int index = it.nextIndex();
+            it.add(e);
+            fireAdded(index, e);
+            changed();
+            lastIndex = -1;
+            lastElement = null;
+        }
+
     }
 
     /**
@@ -281,7 +667,7 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
                 insertIndex = getList().size();
                 getList().add(old);
             }
-            moved.onNext(IndexedChange.of(oldIndex, old, insertIndex, old));
+            fireMoved(oldIndex, insertIndex, old);
             changed();
             return true;
         }
@@ -300,13 +686,31 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
 
     /**
      * Emits a read-only copy of the list on subscription and whenever it the list is updated. If a method such as
-     * {@link #addAll(Collection)} is used, it will emit a copy only once and only if the list was changed.
+     * {@link #addAll(Collection)} is used, it will emit a copy only once and only if the list was changed. The copies
+     * are {@link PersistentList} objects which share their structure, so each update only takes O(log n) time and
+     * memory to produce a new copy. No copies are created while there are no observers.
      *
      * @return The {@link Observable} object.
      */
     @Override
     public Observable<List<E>> observableChanges() {
-        return Observable.wrap(items);
+        return items.observable();
+    }
+
+    /**
+     * Emits a read-only copy of the list on subscription and at most one copy per interval afterwards, which is the
+     * latest copy of an interval in which the list was changed. The copies are kept up to date on the thread that
+     * changes the list, in the same way as those of {@link #observableDeltas()}, so no copy of the whole list is
+     * created for each change. The given scheduler is only used to time the intervals and to emit the copies.
+     *
+     * @param interval The minimum time between two copies.
+     * @param unit The unit of the interval.
+     * @param scheduler The scheduler on which the copies are emitted.
+     * @return The {@link Observable} object.
+     */
+    @Override
+    public Observable<List<E>> observableChanges(long interval, TimeUnit unit, Scheduler scheduler) {
+        return SnapshotSubject.throttle(observableDeltas().map(SnapshotDelta::getCurrent), interval, unit, scheduler);
     }
 
     /**
@@ -319,6 +723,19 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
         return Observable.wrap(added);
     }
 
+    /**
+     * Returns a flowable which emits the same values as {@link #onAdded()}, but buffers at most the given number of
+     * values for a slow subscriber. With {@link OverflowStrategy#BUFFER}, the flowable fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException} once the buffer overflows.
+     *
+     * @param strategy What to do when the buffer is full, which cannot be {@link OverflowStrategy#RESYNC}.
+     * @param bufferSize The maximum number of values in the buffer.
+     * @return The {@link Flowable} object.
+     */
+    public Flowable<Indexed<E>> onAdded(OverflowStrategy strategy, int bufferSize) {
+        return RxCollections.toFlowable(onAdded(), strategy, bufferSize);
+    }
+
     /**
      * Returns an observable which emits a value when an element is removed from the list. The value emitted is an
      * {@link Indexed} object, which contains the index of the removed element in the list and the element itself.
@@ -329,6 +746,19 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
         return Observable.wrap(removed);
     }
 
+    /**
+     * Returns a flowable which emits the same values as {@link #onRemoved()}, but buffers at most the given number of
+     * values for a slow subscriber. With {@link OverflowStrategy#BUFFER}, the flowable fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException} once the buffer overflows.
+     *
+     * @param strategy What to do when the buffer is full, which cannot be {@link OverflowStrategy#RESYNC}.
+     * @param bufferSize The maximum number of values in the buffer.
+     * @return The {@link Flowable} object.
+     */
+    public Flowable<Indexed<E>> onRemoved(OverflowStrategy strategy, int bufferSize) {
+        return RxCollections.toFlowable(onRemoved(), strategy, bufferSize);
+    }
+
     /**
      * Returns an observable which emits a value when an element in the list updated with a new value. The value emitted
      * is an {@link IndexedChange} object, which contains the index of the updated element in the list combined with the
@@ -340,6 +770,19 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
         return Observable.wrap(updated);
     }
 
+    /**
+     * Returns a flowable which emits the same values as {@link #onUpdated()}, but buffers at most the given number of
+     * values for a slow subscriber. With {@link OverflowStrategy#BUFFER}, the flowable fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException} once the buffer overflows.
+     *
+     * @param strategy What to do when the buffer is full, which cannot be {@link OverflowStrategy#RESYNC}.
+     * @param bufferSize The maximum number of values in the buffer.
+     * @return The {@link Flowable} object.
+     */
+    public Flowable<IndexedChange<E>> onUpdated(OverflowStrategy strategy, int bufferSize) {
+        return RxCollections.toFlowable(onUpdated(), strategy, bufferSize);
+    }
+
     /**
      * Returns an observable which emits a value when an element in the list updated with a new value, which differs
      * from the old value at that index. The value emitted is an {@link IndexedChange} object, which contains the index
@@ -351,6 +794,101 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
         return Observable.wrap(updatedChanged);
     }
 
+    /**
+     * Returns a flowable which emits the same values as {@link #onUpdatedChanged()}, but buffers at most the given
+     * number of values for a slow subscriber. With {@link OverflowStrategy#BUFFER}, the flowable fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException} once the buffer overflows.
+     *
+     * @param strategy What to do when the buffer is full, which cannot be {@link OverflowStrategy#RESYNC}.
+     * @param bufferSize The maximum number of values in the buffer.
+     * @return The {@link Flowable} object.
+     */
+    public Flowable<IndexedChange<E>> onUpdatedChanged(OverflowStrategy strategy, int bufferSize) {
+        return RxCollections.toFlowable(onUpdatedChanged(), strategy, bufferSize);
+    }
+
+    /**
+     * Returns an observable which emits the latest elements of the updated indices of the list, with at most one
+     * element per index. Updates are collected while the previous value is processed by the observer and emitted as
+     * soon as the worker of the given scheduler is available. The value emitted is a read-only map of the updated
+     * indices to their latest elements, sorted by index. When elements are added, removed or moved, the pending
+     * indices are adjusted, and the updates of removed elements are discarded.
+     *
+     * @param scheduler The scheduler on which the values are emitted.
+     * @return The {@link Observable} object.
+     */
+    public Observable<Map<Integer, E>> onUpdatedConflated(Scheduler scheduler) {
+        return onUpdatedConflated(0, TimeUnit.MILLISECONDS, scheduler);
+    }
+
+    /**
+     * Returns an observable which emits the latest elements of the updated indices of the list, with at most one
+     * element per index. The first update after a value was emitted opens a window of the given length, after which all
+     * updates made during the window are emitted at once. The value emitted is a read-only map of the updated indices
+     * to their latest elements, sorted by index. When elements are added, removed or moved, the pending indices are
+     * adjusted, and the updates of removed elements are discarded.
+     *
+     * @param window The length of the window.
+     * @param unit The unit of the length of the window.
+     * @param scheduler The scheduler on which the values are emitted.
+     * @return The {@link Observable} object.
+     */
+    public Observable<Map<Integer, E>> onUpdatedConflated(long window, TimeUnit unit, Scheduler scheduler) {
+        return Conflator.observable(conflator -> addListener(new ListListener<E>() {
+            @Override
+            public void onAdded(int index, E element) {
+                conflator.modify(pending -> shift(pending, index, 1));
+            }
+
+            @Override
+            public void onRemoved(int index, E element) {
+                conflator.modify(pending -> {
+                    pending.remove(index);
+                    shift(pending, index + 1, -1);
+                });
+            }
+
+            @Override
+            public void onUpdated(int index, E oldElement, E newElement) {
+                conflator.put(index, newElement);
+            }
+
+            @Override
+            public void onMoved(int oldIndex, int newIndex, E element) {
+                conflator.modify(pending -> {
+                    boolean updated = pending.containsKey(oldIndex);
+                    E latest = pending.remove(oldIndex);
+                    shift(pending, oldIndex + 1, -1);
+                    shift(pending, newIndex, 1);
+                    if (updated) {
+                        pending.put(newIndex, latest);
+                    }
+                });
+            }
+
+            @Override
+            public void onCleared() {
+                conflator.discardAll();
+            }
+        }), TreeMap::new, window, unit, scheduler);
+    }
+
+    /**
+     * Shifts the pending updates from the given index onwards by the given number of indices.
+     */
+    private static <E> void shift(Map<Integer, E> pending, int fromIndex, int delta) {
+        // The pending updates are always stored in a tree map
+        NavigableMap<Integer, E> tail = ((NavigableMap<Integer, E>) pending).tailMap(fromIndex, true);
+        if (tail.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Integer, E>> entries = new ArrayList<>(tail.entrySet());
+        tail.clear();
+        for (Map.Entry<Integer, E> entry : entries) {
+            pending.put(entry.getKey() + delta, entry.getValue());
+        }
+    }
+
     /**
      * Returns an observable which emits a value when an element in the list is moved to a new and different index. The
      * value emitted is an {@link IndexedChange} object, which contains the index of the updated element in the list
@@ -362,4 +900,264 @@ public class ObservableList<E> implements List<E>, ObservableCollection<E, List<
         return Observable.wrap(moved);
     }
 
+    /**
+     * Returns a flowable which emits the same values as {@link #onMoved()}, but buffers at most the given number of
+     * values for a slow subscriber. With {@link OverflowStrategy#BUFFER}, the flowable fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException} once the buffer overflows.
+     *
+     * @param strategy What to do when the buffer is full, which cannot be {@link OverflowStrategy#RESYNC}.
+     * @param bufferSize The maximum number of values in the buffer.
+     * @return The {@link Flowable} object.
+     */
+    public Flowable<IndexedChange<E>> onMoved(OverflowStrategy strategy, int bufferSize) {
+        return RxCollections.toFlowable(onMoved(), strategy, bufferSize);
+    }
+
+    /**
+     * Returns an observable which emits a value when all elements are removed from the list at once by
+     * {@link #clear()}. The value emitted is a read-only copy of the list before it was cleared. No value is emitted
+     * by {@link #onRemoved()} for the removed elements.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<List<E>> onCleared() {
+        return Observable.wrap(cleared);
+    }
+
+    /**
+     * Returns an observable which emits a value whenever the list is changed. The value emitted is a
+     * {@link ListChange} object, which describes all elements added, removed, updated or moved as ranges of
+     * contiguous indices. If a method such as {@link #addAll(Collection)} is used, it will emit only a single value
+     * describing all changes made to the list.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<ListChange<E>> onChanges() {
+        return Observable.wrap(changes);
+    }
+
+    /**
+     * Returns a flowable which emits the same values as {@link #onChanges()}, but buffers at most the given number of
+     * values for a slow subscriber. With {@link OverflowStrategy#RESYNC}, the oldest values are dropped once the buffer
+     * is full, after which the subscriber receives a single {@link ListChange} which replaces the contents of the list
+     * it last knew of by the current contents. The subscriber can therefore keep replaying the changes, while at most
+     * the given number of changes are buffered. With {@link OverflowStrategy#BUFFER}, the flowable fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException} once the buffer overflows.
+     *
+     * @param strategy What to do when the buffer is full.
+     * @param bufferSize The maximum number of values in the buffer.
+     * @return The {@link Flowable} object.
+     */
+    public Flowable<ListChange<E>> onChanges(OverflowStrategy strategy, int bufferSize) {
+        if (strategy != OverflowStrategy.RESYNC) {
+            return RxCollections.toFlowable(onChanges(), strategy, bufferSize);
+        }
+        return Flowable.defer(() -> {
+            tracking.incrementAndGet();
+            long[] sequence = {0};
+            // The last change received by the subscriber, along with the contents of the list after it
+            AtomicReference<SequencedChange<E>> received = new AtomicReference<>(
+                    new SequencedChange<>(0, null, snapshot()));
+            return changes.toFlowable(BackpressureStrategy.MISSING)
+                    .map(c -> new SequencedChange<>(++sequence[0], c, snapshot()))
+                    .onBackpressureBuffer(bufferSize, () -> {
+                    }, BackpressureOverflowStrategy.DROP_OLDEST)
+                    .map(c -> {
+                        SequencedChange<E> last = received.getAndSet(c);
+                        if (c.sequence == last.sequence + 1) {
+                            return c.change;
+                        }
+                        return new ListChange.Builder<E>().replace(0, last.contents, c.contents).build();
+                    })
+                    .doFinally(tracking::decrementAndGet);
+        });
+    }
+
+    /**
+     * Returns an observable which emits a value whenever the list is changed, which combines the read-only copies of
+     * the list before and after the change with the {@link ListChange} object emitted by {@link #onChanges()}. On
+     * subscription, it emits a value which describes the current contents of the list as being added to an empty list.
+     * The copies are kept up to date as the list is changed, so no copy has to be created for each value and the
+     * changes are not determined by comparing copies.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<SnapshotDelta<List<E>, ListChange<E>>> observableDeltas() {
+        return Observable.defer(() -> {
+            tracking.incrementAndGet();
+            List<E> contents = snapshot();
+            return changes
+                    .scan(SnapshotDelta.<List<E>, ListChange<E>>of(Collections.emptyList(), contents,
+                            new ListChange.Builder<E>().replace(0, Collections.emptyList(), contents).build()),
+                            (d, c) -> SnapshotDelta.of(d.getCurrent(), snapshot(), c))
+                    .doFinally(tracking::decrementAndGet);
+        });
+    }
+
+    /**
+     * A change emitted by {@link #onChanges()}, numbered in the order of emission, along with the read-only copy of the
+     * list after the change.
+     */
+    private static final class SequencedChange<E> {
+
+        private final long sequence;
+        private final ListChange<E> change;
+        private final List<E> contents;
+
+        private SequencedChange(long sequence, ListChange<E> change, List<E> contents) {
+            this.sequence = sequence;
+            this.change = change;
+            this.contents = contents;
+        }
+
+    }
+
+    /**
+     * Returns an observable which emits a value for every element added to, removed from, updated in or moved within
+     * the list. Unlike the other observables of the list, the same {@link ListEvent} object is reused for all values,
+     * so no objects are created to emit them. A value is therefore only valid while it is being handled by an observer,
+     * which must not change the list or hand the value over to another thread, for example by using
+     * {@link Observable#observeOn(io.reactivex.Scheduler)}. Values are emitted immediately, even while a transaction
+     * on the list is in progress.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<ListEvent<E>> onEvents() {
+        return Observable.wrap(events);
+    }
+
+    /**
+     * Replaces the contents of the list with the given elements, by the shortest sequence of additions, removals and
+     * updates found by comparing the elements of both lists. Elements which are equal in both lists are kept, so no
+     * events are emitted for them. All changes are made in a single update, so only a single value is emitted by
+     * {@link #onChanges()} and {@link #observableChanges()}.
+     *
+     * @param elements The new elements of the list.
+     * @return True if the list was changed.
+     */
+    public boolean setAll(List<? extends E> elements) {
+        ListIterator<E> it = listIterator();
+        beginUpdate();
+        boolean changed = false;
+        try {
+            // The list is changed while the edits are passed to the script, so they are computed from a copy
+            changed = ListDiff.diff(new ArrayList<>(getList()), elements, new ListDiff.Script<E>() {
+
+                @Override
+                public void start(int index) {
+                    while (it.nextIndex() < index) {
+                        it.next();
+                    }
+                }
+
+                @Override
+                public void keep() {
+                    it.next();
+                }
+
+                @Override
+                public void update(E oldElement, E newElement) {
+                    it.next();
+                    it.set(newElement);
+                }
+
+                @Override
+                public void remove(E oldElement) {
+                    it.next();
+                    it.remove();
+                }
+
+                @Override
+                public void insert(E newElement) {
+                    it.add(newElement);
+                }
+
+            });
+        } finally {
+            endUpdate(changed);
+        }
+        return changed;
+    }
+
+    /**
+     * Returns a read-only view of the elements of the list which satisfy the given predicate, in the order of the list.
+     * The view is built once and then updated incrementally as the list is changed, until it is disposed.
+     *
+     * @param predicate The given predicate.
+     * @return The {@link ObservableListView} object.
+     */
+    public ObservableListView<E> filtered(Predicate<? super E> predicate) {
+        Objects.requireNonNull(predicate);
+        return new FilteredListView<>(this, predicate);
+    }
+
+    /**
+     * Returns a read-only view of the results of the given function applied to the elements of the list, in the order
+     * of the list. The view is built once and then updated incrementally as the list is changed, until it is disposed.
+     *
+     * @param mapper The given function.
+     * @param <R> The type of elements stored in the view.
+     * @return The {@link ObservableListView} object.
+     */
+    public <R> ObservableListView<R> mapped(Function<? super E, ? extends R> mapper) {
+        Objects.requireNonNull(mapper);
+        return new MappedListView<>(this, mapper);
+    }
+
+    /**
+     * Returns a read-only view of the elements of the list, sorted by the given comparator. Elements which are equal
+     * according to the comparator are kept in the order in which they were added. The view is built once and then
+     * updated incrementally as the list is changed, until it is disposed.
+     *
+     * @param comparator The given comparator.
+     * @return The {@link ObservableListView} object.
+     */
+    public ObservableListView<E> sorted(Comparator<? super E> comparator) {
+        Objects.requireNonNull(comparator);
+        return new SortedListView<>(this, comparator);
+    }
+
+    /**
+     * Returns a reactive index of the elements of the list, which maps every key to the group of elements for which
+     * the given function returns that key. The index is built once and then updated incrementally as the list is
+     * changed, until it is disposed.
+     *
+     * @param keyFunction The function which returns the key of an element.
+     * @param <K> The type of keys.
+     * @return The {@link ObservableIndex} object.
+     */
+    public <K> ObservableIndex<K, E> index(Function<? super E, ? extends K> keyFunction) {
+        Objects.requireNonNull(keyFunction);
+        return new ObservableIndex<>(this, keyFunction);
+    }
+
+    /**
+     * Registers a listener which is notified synchronously of all changes made to the list, without creating any event
+     * objects.
+     *
+     * @param listener The given {@link ListListener} object.
+     * @return A {@link Disposable} object which unregisters the listener when it is disposed.
+     */
+    public Disposable addListener(ListListener<? super E> listener) {
+        return listeners.add(listener);
+    }
+
+    /**
+     * Registers a listener which is notified synchronously when the list is cleared, before the regular listeners.
+     * It receives the contents of the list before it was cleared.
+     *
+     * @param listener The given listener.
+     * @return A {@link Disposable} object which unregisters the listener when it is disposed.
+     */
+    Disposable addClearListener(Consumer<? super List<E>> listener) {
+        return clearListeners.add(listener);
+    }
+
+    /**
+     * Emits a value to the given subject, or holds it back while an update of the list is in progress.
+     */
+    <T> void emit(Subject<T> subject, T value) {
+        updates.emit(subject, value);
+    }
+
 }
\ No newline at end of file
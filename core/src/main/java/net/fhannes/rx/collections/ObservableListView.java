@@ -0,0 +1,309 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.disposables.Disposable;
+import net.fhannes.rx.collections.util.PersistentList;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * This class is a read-only reactive list which is derived from another {@link ObservableList}, such as the views
+ * returned by {@link ObservableList#filtered(Predicate)}, {@link ObservableList#mapped(java.util.function.Function)}
+ * and {@link ObservableList#sorted(Comparator)}. The view is built once and then kept up to date by a listener on the
+ * source list, which translates every change of the source list into the corresponding changes of the view. These
+ * changes are emitted by the view like the changes of any other list, so views can be derived from views.
+ * <p>
+ * The elements of the view are stored in a {@link PersistentList}, so every change takes logarithmic time and the view
+ * emits its read-only copies without copying any elements. The view stops following the source list once it is
+ * disposed.
+ *
+ * @param <E> The type of elements stored in the view.
+ */
+public abstract class ObservableListView<E> extends ObservableList<E> implements Disposable {
+
+    private final TreeList<E> elements;
+    private Disposable listener;
+
+    ObservableListView(Collection<? extends E> elements) {
+        this(new TreeList<>(PersistentList.of(elements)));
+    }
+
+    private ObservableListView(TreeList<E> elements) {
+        super(elements);
+        this.elements = elements;
+    }
+
+    /**
+     * Starts following the given source list with the given listener.
+     */
+    <S> void follow(ObservableList<S> source, ListListener<S> listener) {
+        this.listener = source.addListener(listener);
+    }
+
+    @Override
+    List<E> snapshot() {
+        return elements.list;
+    }
+
+    void insert(int index, E element) {
+        super.add(index, element);
+    }
+
+    void delete(int index) {
+        super.remove(index);
+    }
+
+    void replace(int index, E element) {
+        super.set(index, element);
+    }
+
+    void relocate(int oldIndex, int newIndex) {
+        super.move(oldIndex, newIndex > oldIndex ? newIndex + 1 : newIndex);
+    }
+
+    void reset() {
+        super.clear();
+    }
+
+    @Override
+    public void dispose() {
+        listener.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return listener.isDisposed();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean add(E o) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void add(int index, E element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean addAll(E... elements) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public E remove(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void removeRange(int fromIndex, int toIndex) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public E set(int index, E element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean setAll(List<? extends E> elements) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean move(int oldIndex, int insertIndex) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a read-only list iterator over the elements of the view.
+     *
+     * @param index The index of the first element to be returned by {@link ListIterator#next()}.
+     * @return The {@link ListIterator} object.
+     */
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        return Collections.unmodifiableList(elements).listIterator(index);
+    }
+
+    /**
+     * A mutable list which stores its elements in a {@link PersistentList}, which is replaced on every change.
+     */
+    private static final class TreeList<E> extends AbstractList<E> {
+
+        private PersistentList<E> list;
+
+        private TreeList(PersistentList<E> list) {
+            this.list = list;
+        }
+
+        @Override
+        public E get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public E set(int index, E element) {
+            E old = list.get(index);
+            list = list.with(index, element);
+            return old;
+        }
+
+        @Override
+        public void add(int index, E element) {
+            list = list.plus(index, element);
+        }
+
+        @Override
+        public E remove(int index) {
+            E old = list.get(index);
+            list = list.minus(index);
+            return old;
+        }
+
+        @Override
+        public void clear() {
+            list = PersistentList.empty();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return list.iterator();
+        }
+
+    }
+
+}
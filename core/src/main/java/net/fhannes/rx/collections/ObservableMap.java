@@ -18,51 +18,262 @@
  */
 package net.fhannes.rx.collections;
 
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
-import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
 import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
 import net.fhannes.rx.collections.util.EntryChange;
 import net.fhannes.rx.collections.util.ImmutableEntry;
+import net.fhannes.rx.collections.util.MapChange;
+import net.fhannes.rx.collections.util.PersistentMap;
+import net.fhannes.rx.collections.util.SnapshotDelta;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class ObservableMap<K, V> implements Map<K, V> {
 
     private Map<K, V> map;
-    private BehaviorSubject<Map<K, V>> items = BehaviorSubject.create();
-    private PublishSubject<Map.Entry<K, V>> put = PublishSubject.create();
-    private PublishSubject<Map.Entry<K, V>> added = PublishSubject.create();
-    private PublishSubject<Map.Entry<K, V>> removed = PublishSubject.create();
-    private PublishSubject<EntryChange<K, V>> updated = PublishSubject.create();
+    /**
+     * Whether the map is changed by multiple threads, in which case events must be emitted in a thread-safe manner.
+     */
+    private final boolean concurrent;
+    private SnapshotSubject<Map<K, V>> items =
+            new SnapshotSubject<>(() -> Collections.unmodifiableMap(new HashMap<>(this)));
+    private Subject<Map.Entry<K, V>> put;
+    private Subject<Map.Entry<K, V>> added;
+    private Subject<Map.Entry<K, V>> removed;
+    private Subject<EntryChange<K, V>> updated;
+    private Subject<Map<K, V>> cleared;
+    private Subject<MapChange<K, V>> changes;
+    private Subject<MapEvent<K, V>> events;
+    private MapEvent<K, V> event = new MapEvent<>();
+    private ListenerList<MapListener<? super K, ? super V>> listeners = new ListenerList<>();
+    /**
+     * The subjects of the observables returned by {@link #observeKey(Object)}, which only exist while observed.
+     */
+    private final Map<Object, KeyObservers<K, V>> keyObservers = new ConcurrentHashMap<>();
+
+    private UpdateTracker updates = new UpdateTracker(this::commit);
+    private final Object changeLock = new Object();
+    private MapChange.Builder<K, V> change;
+
+    /**
+     * Creates a subject for one of the observables of the map, which is serialized if the map is concurrent.
+     */
+    <T> Subject<T> subject() {
+        return concurrent ? PublishSubject.<T>create().toSerialized() : PublishSubject.create();
+    }
+
+    /**
+     * Emits a value to the given subject, or holds it back while an update is in progress.
+     */
+    <T> void emit(Subject<T> subject, T value) {
+        updates.emit(subject, value);
+    }
+
+    void changed() {
+        updates.changed();
+    }
+
+    /**
+     * Emits the changes made to the map and a read-only copy of it, once all updates in progress have ended.
+     */
+    private void commit() {
+        if (change != null) {
+            synchronized (changeLock) {
+                if (change != null) {
+                    MapChange.Builder<K, V> c = change;
+                    change = null;
+                    if (!c.isEmpty()) {
+                        changes.onNext(c.build());
+                    }
+                }
+            }
+        }
+        items.changed();
+    }
+
+    /**
+     * Returns the builder used to collect the changes for {@link #onChanges()}, or null if nobody observes them. The
+     * caller must hold the lock on {@link #changeLock}.
+     */
+    private MapChange.Builder<K, V> change() {
+        if (change == null && changes.hasObservers()) {
+            change = new MapChange.Builder<>();
+        }
+        return change;
+    }
+
+    /**
+     * Emits the reused {@link MapEvent} object, which is cleared afterwards so it does not retain any entries.
+     */
+    private void fireEvent(MapEvent.Type type, K key, V oldValue, V value) {
+        if (concurrent) {
+            // A serialized subject may emit the event later on another thread, so it cannot be reused
+            events.onNext(new MapEvent<K, V>().set(type, key, oldValue, value));
+        } else {
+            events.onNext(event.set(type, key, oldValue, value));
+            event.clear();
+        }
+    }
+
+    /**
+     * Emits a change of the value of the given key to the observers of that key, if there are any.
+     */
+    private void fireKey(K key, V oldValue, V newValue) {
+        if (key != null && !keyObservers.isEmpty()) {
+            KeyObservers<K, V> observers = keyObservers.get(key);
+            if (observers != null) {
+                updates.emit(observers.subject, EntryChange.of(key, oldValue, newValue));
+            }
+        }
+    }
 
-    private boolean updating = false;
+    @SuppressWarnings("unchecked")
+    void fireAdded(K key, V value) {
+        for (Object listener : listeners.get()) {
+            ((MapListener<? super K, ? super V>) listener).onAdded(key, value);
+        }
+        if (events.hasObservers()) {
+            fireEvent(MapEvent.Type.ADDED, key, null, value);
+        }
+        if (put.hasObservers()) {
+            updates.emit(put, ImmutableEntry.of(key, value));
+        }
+        if (added.hasObservers()) {
+            updates.emit(added, ImmutableEntry.of(key, value));
+        }
+        fireKey(key, null, value);
+        if (change != null || changes.hasObservers()) {
+            synchronized (changeLock) {
+                if (change() != null) {
+                    change.add(key, value);
+                }
+            }
+        }
+    }
 
-    private void changed() {
-        if (!updating) {
-            items.onNext(Collections.unmodifiableMap(new HashMap<>(this)));
+    @SuppressWarnings("unchecked")
+    void fireUpdated(K key, V oldValue, V newValue) {
+        for (Object listener : listeners.get()) {
+            ((MapListener<? super K, ? super V>) listener).onUpdated(key, oldValue, newValue);
+        }
+        if (events.hasObservers()) {
+            fireEvent(MapEvent.Type.UPDATED, key, oldValue, newValue);
+        }
+        if (put.hasObservers()) {
+            updates.emit(put, ImmutableEntry.of(key, newValue));
+        }
+        if (updated.hasObservers()) {
+            updates.emit(updated, EntryChange.of(key, oldValue, newValue));
+        }
+        fireKey(key, oldValue, newValue);
+        if (change != null || changes.hasObservers()) {
+            synchronized (changeLock) {
+                if (change() != null) {
+                    change.update(key, oldValue, newValue);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void fireRemoved(K key, V value) {
+        for (Object listener : listeners.get()) {
+            ((MapListener<? super K, ? super V>) listener).onRemoved(key, value);
+        }
+        if (events.hasObservers()) {
+            fireEvent(MapEvent.Type.REMOVED, key, null, value);
+        }
+        if (removed.hasObservers()) {
+            updates.emit(removed, ImmutableEntry.of(key, value));
+        }
+        fireKey(key, value, null);
+        if (change != null || changes.hasObservers()) {
+            synchronized (changeLock) {
+                if (change() != null) {
+                    change.remove(key, value);
+                }
+            }
         }
     }
 
     private void beginUpdate() {
-        updating = true;
+        updates.begin();
     }
 
     private void endUpdate(boolean changed) {
-        updating = false;
         if (changed) {
             changed();
         }
+        updates.end();
+    }
+
+    /**
+     * Starts a transaction on the map. Until the transaction is closed, all events are held back. Once the outermost
+     * transaction is closed, these events are emitted, followed by a single value for {@link #onChanges()} and a single
+     * copy for {@link #observableChanges()}. Transactions can be nested.
+     *
+     * @return The {@link Transaction} object, which should be closed to end the transaction.
+     */
+    public Transaction beginTransaction() {
+        return updates.transaction();
+    }
+
+    /**
+     * Performs the given action on the map within a transaction.
+     *
+     * @param action The action to perform.
+     * @see #beginTransaction()
+     */
+    public void batch(Consumer<? super ObservableMap<K, V>> action) {
+        try (Transaction ignored = beginTransaction()) {
+            action.accept(this);
+        }
+    }
+
+    /**
+     * The subject of the observers of a single key, along with the number of observers.
+     */
+    private static final class KeyObservers<K, V> {
+
+        private final Subject<EntryChange<K, V>> subject;
+        private int count;
+
+        private KeyObservers(Subject<EntryChange<K, V>> subject) {
+            this.subject = subject;
+        }
+
     }
 
     ObservableMap(Map<K, V> map) {
+        this(map, false);
+    }
+
+    ObservableMap(Map<K, V> map, boolean concurrent) {
         this.map = map;
-        changed();
+        this.concurrent = concurrent;
+        this.put = subject();
+        this.added = subject();
+        this.removed = subject();
+        this.updated = subject();
+        this.cleared = subject();
+        this.changes = subject();
+        this.events = subject();
     }
 
     /**
      * Returns the map used internally to store elements.
      */
-    Map<K, V> getList() {
+    Map<K, V> getMap() {
         return map;
     }
 
@@ -93,26 +304,148 @@ public class ObservableMap<K, V> implements Map<K, V> {
 
     @Override
     public V put(K key, V value) {
-        boolean keyExists = map.containsKey(key);
+        // Whether the entry is new follows from the size of the map, so the key is only looked up once
+        int size = map.size();
         V oldValue = map.put(key, value);
-        put.onNext(ImmutableEntry.of(key, value));
-        if (keyExists) {
-            updated.onNext(EntryChange.of(key, oldValue, value));
+        if (map.size() != size) {
+            fireAdded(key, value);
         } else {
-            added.onNext(ImmutableEntry.of(key, value));
+            fireUpdated(key, oldValue, value);
         }
         changed();
-        return value;
+        return oldValue;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public V remove(Object key) {
+        int size = map.size();
         V value = map.remove(key);
-        removed.onNext(ImmutableEntry.of((K) key, value));
-        changed();
+        if (map.size() != size) {
+            fireRemoved((K) key, value);
+            changed();
+        }
         return value;
     }
 
+    /**
+     * Computes a new value for the given key by a single operation on the internal map, if the given condition holds
+     * for its current value, after which an entry is added, updated or removed accordingly. As by
+     * {@link Map#compute(Object, BiFunction)}, a null value is treated as if the key were absent. As by
+     * {@link #put(Object, Object)}, an update is emitted whenever a value is computed for a key which is present, even
+     * if it is the same value.
+     *
+     * @param returnOld Whether to return the value mapped to the key before the operation instead of after it.
+     */
+    @SuppressWarnings("unchecked")
+    V update(K key, BiPredicate<? super K, ? super V> condition,
+             BiFunction<? super K, ? super V, ? extends V> remappingFunction, boolean returnOld) {
+        Object[] previous = new Object[1];
+        boolean[] computed = new boolean[1];
+        V newValue = map.compute(key, (k, old) -> {
+            previous[0] = old;
+            if (!condition.test(k, old)) {
+                return old;
+            }
+            computed[0] = true;
+            return remappingFunction.apply(k, old);
+        });
+        V oldValue = (V) previous[0];
+        if (computed[0] && (oldValue != null || newValue != null)) {
+            if (oldValue == null) {
+                fireAdded(key, newValue);
+            } else if (newValue == null) {
+                fireRemoved(key, oldValue);
+            } else {
+                fireUpdated(key, oldValue, newValue);
+            }
+            changed();
+        }
+        return returnOld ? oldValue : newValue;
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        return update(key, (k, old) -> true, remappingFunction, false);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        return update(key, (k, old) -> old == null, (k, old) -> mappingFunction.apply(k), false);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        return update(key, (k, old) -> old != null, remappingFunction, false);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        return update(key, (k, old) -> true, (k, old) -> old != null ? remappingFunction.apply(old, value) : value,
+                false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        if (value == null) {
+            // A null value cannot be computed, so it is put by the default implementation
+            return Map.super.putIfAbsent(key, null);
+        }
+        return update(key, (k, old) -> old == null, (k, old) -> value, true);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (value == null) {
+            return Map.super.remove(key, null);
+        }
+        @SuppressWarnings("unchecked")
+        V old = update((K) key, (k, v) -> value.equals(v), (k, v) -> null, true);
+        return value.equals(old);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        if (oldValue == null || newValue == null) {
+            return Map.super.replace(key, oldValue, newValue);
+        }
+        V old = update(key, (k, v) -> oldValue.equals(v), (k, v) -> newValue, true);
+        return oldValue.equals(old);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        if (value == null) {
+            return Map.super.replace(key, null);
+        }
+        return update(key, (k, old) -> old != null, (k, old) -> value, true);
+    }
+
+    /**
+     * Replaces the values of all entries in a single pass over the internal map. An update is emitted for every entry,
+     * as by {@link #put(Object, Object)}.
+     */
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(function);
+        beginUpdate();
+        try {
+            for (Entry<K, V> entry : map.entrySet()) {
+                V oldValue = entry.getValue();
+                V newValue = function.apply(entry.getKey(), oldValue);
+                entry.setValue(newValue);
+                fireUpdated(entry.getKey(), oldValue, newValue);
+            }
+        } finally {
+            endUpdate(!map.isEmpty());
+        }
+    }
+
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
         beginUpdate();
@@ -123,10 +456,43 @@ public class ObservableMap<K, V> implements Map<K, V> {
         }
     }
 
+    /**
+     * Removes all entries from the map at once. Instead of emitting a value for each removed entry, a single value is
+     * emitted by {@link #onCleared()}.
+     */
     @Override
+    @SuppressWarnings("unchecked")
     public void clear() {
+        if (map.isEmpty()) {
+            return;
+        }
+        Map<K, V> contents = null;
+        if (cleared.hasObservers() || changes.hasObservers() || !keyObservers.isEmpty()) {
+            contents = Collections.unmodifiableMap(new HashMap<>(map));
+        }
         map.clear();
-        map.forEach((k, v) -> removed.onNext(ImmutableEntry.of(k, v)));
+        for (Object listener : listeners.get()) {
+            ((MapListener<? super K, ? super V>) listener).onCleared();
+        }
+        if (events.hasObservers()) {
+            fireEvent(MapEvent.Type.CLEARED, null, null, null);
+        }
+        if (contents != null) {
+            if (cleared.hasObservers()) {
+                updates.emit(cleared, contents);
+            }
+            for (Entry<Object, KeyObservers<K, V>> entry : keyObservers.entrySet()) {
+                if (contents.containsKey(entry.getKey())) {
+                    K key = (K) entry.getKey();
+                    updates.emit(entry.getValue().subject, EntryChange.of(key, contents.get(key), null));
+                }
+            }
+            synchronized (changeLock) {
+                if (change() != null) {
+                    contents.forEach(change::remove);
+                }
+            }
+        }
         changed();
     }
 
@@ -150,23 +516,286 @@ public class ObservableMap<K, V> implements Map<K, V> {
     }
 
     public Observable<Map<K, V>> observableChanges() {
-        return Observable.wrap(items);
+        return items.observable();
+    }
+
+    /**
+     * Emits a read-only copy of the map on subscription and at most one copy per interval afterwards, which is the
+     * latest copy of an interval in which the map was changed. Each copy is derived from the previous copy on the
+     * thread that changes the map, in the same way as those of {@link #observableDeltas()}, which takes O(k log n)
+     * time for a change of k entries. The given scheduler is only used to time the intervals and to emit the copies.
+     *
+     * @param interval The minimum time between two copies.
+     * @param unit The unit of the interval.
+     * @param scheduler The scheduler on which the copies are emitted.
+     * @return The {@link Observable} object.
+     */
+    public Observable<Map<K, V>> observableChanges(long interval, TimeUnit unit, Scheduler scheduler) {
+        return SnapshotSubject.throttle(observableDeltas().map(SnapshotDelta::getCurrent), interval, unit, scheduler);
     }
 
-    private Observable<Map.Entry<K, V>> onPut() {
+    /**
+     * Returns a flowable which emits the same values as {@link #observableChanges()}, but buffers at most the given
+     * number of copies for a slow subscriber. As every copy describes the entire map, a subscriber which misses copies
+     * when using {@link OverflowStrategy#LATEST} or {@link OverflowStrategy#RESYNC} still ends up with the current
+     * contents of the map. With {@link OverflowStrategy#BUFFER}, the flowable fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException} once the buffer overflows.
+     *
+     * @param strategy What to do when the buffer is full.
+     * @param bufferSize The maximum number of copies in the buffer.
+     * @return The {@link Flowable} object.
+     */
+    public Flowable<Map<K, V>> observableChanges(OverflowStrategy strategy, int bufferSize) {
+        return RxCollections.toFlowable(observableChanges(),
+                strategy == OverflowStrategy.RESYNC ? OverflowStrategy.LATEST : strategy, bufferSize);
+    }
+
+    /**
+     * Returns an observable which emits a value when an entry is added to or updated in the map. The value emitted is
+     * an entry containing the key and its new value.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<Map.Entry<K, V>> onPut() {
         return Observable.wrap(put);
     }
 
-    private Observable<Map.Entry<K, V>> onAdded() {
+    /**
+     * Returns an observable which emits the latest values of the keys which were added to or updated in the map, with
+     * at most one value per key. Changes are collected while the previous value is processed by the observer and
+     * emitted as soon as the worker of the given scheduler is available. The value emitted is a read-only map of the
+     * changed keys to their latest values. The pending value of a key is discarded when its entry is removed, so
+     * removals should be observed by {@link #onRemoved()} and {@link #onCleared()}.
+     *
+     * @param scheduler The scheduler on which the values are emitted.
+     * @return The {@link Observable} object.
+     */
+    public Observable<Map<K, V>> onPutConflated(Scheduler scheduler) {
+        return onPutConflated(0, TimeUnit.MILLISECONDS, scheduler);
+    }
+
+    /**
+     * Returns an observable which emits the latest values of the keys which were added to or updated in the map, with
+     * at most one value per key. The first change after a value was emitted opens a window of the given length, after
+     * which all changes made during the window are emitted at once. The value emitted is a read-only map of the changed
+     * keys to their latest values. The pending value of a key is discarded when its entry is removed, so removals
+     * should be observed by {@link #onRemoved()} and {@link #onCleared()}.
+     *
+     * @param window The length of the window.
+     * @param unit The unit of the length of the window.
+     * @param scheduler The scheduler on which the values are emitted.
+     * @return The {@link Observable} object.
+     */
+    public Observable<Map<K, V>> onPutConflated(long window, TimeUnit unit, Scheduler scheduler) {
+        return Conflator.observable(conflator -> addListener(new MapListener<K, V>() {
+            @Override
+            public void onAdded(K key, V value) {
+                conflator.put(key, value);
+            }
+
+            @Override
+            public void onUpdated(K key, V oldValue, V newValue) {
+                conflator.put(key, newValue);
+            }
+
+            @Override
+            public void onRemoved(K key, V value) {
+                conflator.discard(key);
+            }
+
+            @Override
+            public void onCleared() {
+                conflator.discardAll();
+            }
+        }), LinkedHashMap::new, window, unit, scheduler);
+    }
+
+    /**
+     * Returns an observable which emits a value when a new entry is added to the map. The value emitted is the added
+     * entry.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<Map.Entry<K, V>> onAdded() {
         return Observable.wrap(added);
     }
 
-    private Observable<Map.Entry<K, V>> onRemoved() {
+    /**
+     * Returns an observable which emits a value when an entry is removed from the map. The value emitted is the removed
+     * entry.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<Map.Entry<K, V>> onRemoved() {
         return Observable.wrap(removed);
     }
 
-    private Observable<EntryChange<K, V>> onUpdated() {
+    /**
+     * Returns an observable which emits a value when the value of an entry in the map is updated. The value emitted is
+     * an {@link EntryChange} object, which contains the entry before and after it was updated.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<EntryChange<K, V>> onUpdated() {
         return Observable.wrap(updated);
     }
 
+    /**
+     * Returns an observable which emits a value when the entry of the given key is added, updated or removed, including
+     * when the map is cleared. The value emitted is an {@link EntryChange} object, which contains the entry before and
+     * after the change. The value of the old entry is null if the entry was added, and the value of the new entry is
+     * null if it was removed.
+     * <p>
+     * Changes are dispatched by key, so the cost of a change does not depend on the number of keys being observed. The
+     * subject for a key is created when its first observer subscribes and released when its last observer disposes.
+     *
+     * @param key The given key, which must not be null.
+     * @return The {@link Observable} object.
+     */
+    public Observable<EntryChange<K, V>> observeKey(K key) {
+        Objects.requireNonNull(key);
+        return Observable.defer(() -> {
+            KeyObservers<K, V> observers = keyObservers.compute(key, (k, current) -> {
+                if (current == null) {
+                    current = new KeyObservers<>(subject());
+                }
+                current.count++;
+                return current;
+            });
+            return observers.subject.doFinally(() -> keyObservers.computeIfPresent(key,
+                    (k, current) -> --current.count == 0 ? null : current));
+        });
+    }
+
+    /**
+     * Returns an observable which emits a value when all entries are removed from the map at once by
+     * {@link #clear()}. The value emitted is a read-only copy of the map before it was cleared. No values are emitted
+     * for the individual removed entries.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<Map<K, V>> onCleared() {
+        return Observable.wrap(cleared);
+    }
+
+    /**
+     * Returns an observable which emits a value whenever the map is changed. The value emitted is a {@link MapChange}
+     * object, which contains all entries added to, removed from or updated in the map. If a method such as
+     * {@link #putAll(Map)} is used, it will emit only a single value describing all changes made to the map.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<MapChange<K, V>> onChanges() {
+        return Observable.wrap(changes);
+    }
+
+    /**
+     * Returns a flowable which emits the same values as {@link #onChanges()}, but buffers at most the given number of
+     * values for a slow subscriber. With {@link OverflowStrategy#BUFFER}, the flowable fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException} once the buffer overflows.
+     *
+     * @param strategy What to do when the buffer is full, which cannot be {@link OverflowStrategy#RESYNC}.
+     * @param bufferSize The maximum number of values in the buffer.
+     * @return The {@link Flowable} object.
+     */
+    public Flowable<MapChange<K, V>> onChanges(OverflowStrategy strategy, int bufferSize) {
+        return RxCollections.toFlowable(onChanges(), strategy, bufferSize);
+    }
+
+    /**
+     * Returns an observable which emits a value whenever the map is changed, which combines the read-only copies of the
+     * map before and after the change with the {@link MapChange} object emitted by {@link #onChanges()}. On
+     * subscription, it emits a value which describes the current contents of the map as being added to an empty map.
+     * Each copy is created by applying the change to the previous copy, so the changes are not determined by comparing
+     * copies. The copies share their structure, so creating a copy takes O(k log n) time and memory for a change of k
+     * entries, rather than copying the whole map.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<SnapshotDelta<Map<K, V>, MapChange<K, V>>> observableDeltas() {
+        return Observable.defer(() -> {
+            PersistentMap<K, V> contents = PersistentMap.of(getMap());
+            MapChange.Builder<K, V> initial = new MapChange.Builder<>();
+            contents.forEach(initial::add);
+            return changes
+                    .scan(SnapshotDelta.<Map<K, V>, MapChange<K, V>>of(Collections.emptyMap(), contents,
+                            initial.build()), (d, c) -> {
+                        PersistentMap<K, V> current = (PersistentMap<K, V>) d.getCurrent();
+                        for (K key : c.getRemoved().keySet()) {
+                            current = current.minus(key);
+                        }
+                        for (Map.Entry<K, V> entry : c.getAdded().entrySet()) {
+                            current = current.plus(entry.getKey(), entry.getValue());
+                        }
+                        for (Map.Entry<K, EntryChange<K, V>> entry : c.getUpdated().entrySet()) {
+                            current = current.plus(entry.getKey(), entry.getValue().getNewEntry().getValue());
+                        }
+                        return SnapshotDelta.of(d.getCurrent(), current, c);
+                    });
+        });
+    }
+
+    /**
+     * Returns an observable which emits a value for every entry added to, updated in or removed from the map. Unlike
+     * the other observables of the map, the same {@link MapEvent} object is reused for all values, so no objects are
+     * created to emit them. A value is therefore only valid while it is being handled by an observer, which must not
+     * change the map or hand the value over to another thread, for example by using
+     * {@link Observable#observeOn(io.reactivex.Scheduler)}. Values are emitted immediately, even while a transaction
+     * on the map is in progress. A concurrent map creates a new {@link MapEvent} object for each value instead.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<MapEvent<K, V>> onEvents() {
+        return Observable.wrap(events);
+    }
+
+    /**
+     * Returns a read-only view of the inner join of this map with the given map on their keys. The view contains the
+     * keys of both maps, each mapped to the result of the given function applied to its values in this map and in the
+     * given map. The view is built once and then updated incrementally as either map is changed, until it is
+     * disposed. Null values are treated as missing values, and keys for which the function returns null are left out.
+     *
+     * @param other The given map.
+     * @param combiner The function which combines the values of a key.
+     * @param <W> The type of values stored in the given map.
+     * @param <R> The type of values stored in the view.
+     * @return The {@link ObservableMapView} object.
+     */
+    public <W, R> ObservableMapView<K, R> join(ObservableMap<K, W> other,
+                                               BiFunction<? super V, ? super W, ? extends R> combiner) {
+        Objects.requireNonNull(other);
+        Objects.requireNonNull(combiner);
+        return new JoinedMapView<>(this, other, combiner, false);
+    }
+
+    /**
+     * Returns a read-only view of the left outer join of this map with the given map on their keys. The view contains
+     * the keys of this map, each mapped to the result of the given function applied to its value in this map and its
+     * value in the given map, which is null if the key is missing from the given map. The view is built once and then
+     * updated incrementally as either map is changed, until it is disposed.
+     *
+     * @param other The given map.
+     * @param combiner The function which combines the values of a key.
+     * @param <W> The type of values stored in the given map.
+     * @param <R> The type of values stored in the view.
+     * @return The {@link ObservableMapView} object.
+     */
+    public <W, R> ObservableMapView<K, R> leftJoin(ObservableMap<K, W> other,
+                                                   BiFunction<? super V, ? super W, ? extends R> combiner) {
+        Objects.requireNonNull(other);
+        Objects.requireNonNull(combiner);
+        return new JoinedMapView<>(this, other, combiner, true);
+    }
+
+    /**
+     * Registers a listener which is notified synchronously of all changes made to the map, without creating any event
+     * objects.
+     *
+     * @param listener The given {@link MapListener} object.
+     * @return A {@link Disposable} object which unregisters the listener when it is disposed.
+     */
+    public Disposable addListener(MapListener<? super K, ? super V> listener) {
+        return listeners.add(listener);
+    }
+
 }
@@ -0,0 +1,240 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * This class is a read-only reactive map which is derived from other reactive collections, such as the index returned
+ * by {@link ObservableList#index(Function)} and the joins returned by
+ * {@link ObservableMap#join(ObservableMap, BiFunction)}. The view is built once and then kept up to date by listeners
+ * on its sources, which translate every change of a source into the corresponding changes of the view. These changes
+ * are emitted by the view like the changes of any other map. The view stops following its sources once it is
+ * disposed.
+ *
+ * @param <K> The type of keys stored in the view.
+ * @param <V> The type of values stored in the view.
+ */
+public abstract class ObservableMapView<K, V> extends ObservableMap<K, V> implements Disposable {
+
+    private final CompositeDisposable listeners = new CompositeDisposable();
+
+    ObservableMapView() {
+        super(new HashMap<>());
+    }
+
+    /**
+     * Starts following a source with the listener which is unregistered by the given {@link Disposable} object.
+     */
+    void follow(Disposable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Maps the given key to the given value, or removes the key if the value is null.
+     */
+    void store(K key, V value) {
+        update(key, (k, old) -> true, (k, old) -> value, false);
+    }
+
+    void reset() {
+        super.clear();
+    }
+
+    @Override
+    public void dispose() {
+        listeners.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return listeners.isDisposed();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public V remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean remove(Object key, Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public V replace(K key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A view cannot be changed directly, so its keys are returned as a read-only set.
+     *
+     * @return The read-only {@link Set} object.
+     */
+    @Override
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(super.keySet());
+    }
+
+    /**
+     * A view cannot be changed directly, so its values are returned as a read-only collection.
+     *
+     * @return The read-only {@link Collection} object.
+     */
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(super.values());
+    }
+
+    /**
+     * A view cannot be changed directly, so its entries are returned as a read-only set, of which the entries cannot be
+     * changed either.
+     *
+     * @return The read-only {@link Set} object.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return Collections.unmodifiableMap(getMap()).entrySet();
+    }
+
+}
@@ -0,0 +1,264 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.Observable;
+import io.reactivex.subjects.Subject;
+import net.fhannes.rx.collections.util.EntryChange;
+
+import java.util.*;
+
+/**
+ * This class is a reactive sorted map. It is a specialized version of the {@link ObservableMap} class, which wraps
+ * around a {@link NavigableMap} object such as a {@link TreeMap}.
+ * <p>
+ * In addition to the observables of a map, changes can be observed for a range of keys by
+ * {@link #observeRange(Object, Object)}. The ranges being observed are kept in an index, so the cost of a change only
+ * depends on the number of observers of the changed key. The views returned by this map, such as
+ * {@link #subMap(Object, Object)}, are read-only.
+ *
+ * @param <K> The type of keys stored in the map.
+ * @param <V> The type of values stored in the map.
+ */
+public class ObservableNavigableMap<K, V> extends ObservableMap<K, V> implements NavigableMap<K, V> {
+
+    private final RangeIndex<K, Subject<EntryChange<K, V>>> ranges;
+
+    public ObservableNavigableMap() {
+        this(new TreeMap<>());
+    }
+
+    public ObservableNavigableMap(NavigableMap<K, V> map) {
+        super(map);
+        this.ranges = new RangeIndex<>(map.comparator());
+    }
+
+    @Override
+    NavigableMap<K, V> getMap() {
+        return (NavigableMap<K, V>) super.getMap();
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(K a, K b) {
+        Comparator<? super K> comparator = comparator();
+        return comparator != null ? comparator.compare(a, b) : ((Comparable<? super K>) a).compareTo(b);
+    }
+
+    /**
+     * Emits a change of the value of the given key to the observers of all ranges containing the key.
+     */
+    @SuppressWarnings("unchecked")
+    private void fireRange(K key, V oldValue, V newValue) {
+        if (!ranges.isEmpty()) {
+            Object[] subjects = ranges.get(key);
+            if (subjects.length > 0) {
+                EntryChange<K, V> change = EntryChange.of(key, oldValue, newValue);
+                for (Object subject : subjects) {
+                    emit((Subject<EntryChange<K, V>>) subject, change);
+                }
+            }
+        }
+    }
+
+    @Override
+    void fireAdded(K key, V value) {
+        super.fireAdded(key, value);
+        fireRange(key, null, value);
+    }
+
+    @Override
+    void fireUpdated(K key, V oldValue, V newValue) {
+        super.fireUpdated(key, oldValue, newValue);
+        fireRange(key, oldValue, newValue);
+    }
+
+    @Override
+    void fireRemoved(K key, V value) {
+        super.fireRemoved(key, value);
+        fireRange(key, value, null);
+    }
+
+    /**
+     * Returns an observable which emits a value when an entry with a key in the given range is added, updated or
+     * removed, including when the map is cleared. The value emitted is an {@link EntryChange} object, which contains
+     * the entry before and after the change. The value of the old entry is null if the entry was added, and the value
+     * of the new entry is null if it was removed.
+     *
+     * @param fromKey The lower bound of the range of keys, inclusive.
+     * @param toKey   The upper bound of the range of keys, exclusive.
+     * @return The {@link Observable} object.
+     */
+    public Observable<EntryChange<K, V>> observeRange(K fromKey, K toKey) {
+        if (compare(fromKey, toKey) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return Observable.defer(() -> {
+            Subject<EntryChange<K, V>> subject = subject();
+            ranges.add(fromKey, toKey, subject);
+            return subject.doFinally(() -> ranges.remove(fromKey, toKey, subject));
+        });
+    }
+
+    /**
+     * Removes all entries from the map at once. A single value is emitted by {@link #onCleared()}, while the
+     * observers of {@link #observeRange(Object, Object)} receive a value for each removed entry in their range.
+     */
+    @Override
+    public void clear() {
+        if (ranges.isEmpty() || isEmpty()) {
+            super.clear();
+            return;
+        }
+        NavigableMap<K, V> contents = new TreeMap<>(getMap());
+        // The removals are emitted to the ranges before the map is committed, as for any other change
+        try (Transaction ignored = beginTransaction()) {
+            super.clear();
+            contents.forEach((key, value) -> fireRange(key, value, null));
+        }
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        return poll(getMap().pollFirstEntry());
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        return poll(getMap().pollLastEntry());
+    }
+
+    private Entry<K, V> poll(Entry<K, V> entry) {
+        if (entry != null) {
+            fireRemoved(entry.getKey(), entry.getValue());
+            changed();
+        }
+        return entry;
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return getMap().lowerEntry(key);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return getMap().lowerKey(key);
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return getMap().floorEntry(key);
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return getMap().floorKey(key);
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return getMap().ceilingEntry(key);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return getMap().ceilingKey(key);
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return getMap().higherEntry(key);
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return getMap().higherKey(key);
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return getMap().firstEntry();
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return getMap().lastEntry();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return getMap().comparator();
+    }
+
+    @Override
+    public K firstKey() {
+        return getMap().firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return getMap().lastKey();
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return Collections.unmodifiableNavigableMap(getMap().descendingMap());
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return Collections.unmodifiableNavigableSet(getMap().navigableKeySet());
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return Collections.unmodifiableNavigableSet(getMap().descendingKeySet());
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return Collections.unmodifiableNavigableMap(getMap().subMap(fromKey, fromInclusive, toKey, toInclusive));
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return Collections.unmodifiableNavigableMap(getMap().headMap(toKey, inclusive));
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return Collections.unmodifiableNavigableMap(getMap().tailMap(fromKey, inclusive));
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+}
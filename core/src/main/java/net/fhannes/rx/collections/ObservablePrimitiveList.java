@@ -0,0 +1,224 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class contains the logic which is shared by the reactive lists of primitive values, such as
+ * {@link ObservableIntList}. The values are stored in an array of which only the subclass knows the type, while this
+ * class keeps track of the size of the list, shares the array with the read-only copies of the list and manages the
+ * transactions of the list.
+ *
+ * @param <S> The type of the read-only copies of the list.
+ */
+abstract class ObservablePrimitiveList<S> {
+
+    private int size;
+    /**
+     * The number of values of the array which are visible to a read-only copy. These values are copied to a new array
+     * before any of them are changed, while values can still be appended without copying the array.
+     */
+    private int shared = 0;
+
+    private final SnapshotSubject<S> items = new SnapshotSubject<>(this::share);
+    private final PublishSubject<S> cleared = PublishSubject.create();
+
+    private final UpdateTracker updates = new UpdateTracker(items::changed);
+
+    ObservablePrimitiveList(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Returns the array in which the values are stored.
+     */
+    abstract Object array();
+
+    /**
+     * Returns the number of values which fit in the array.
+     */
+    abstract int capacity();
+
+    /**
+     * Replaces the array by a new array with the given capacity, which starts with the values of the current array.
+     */
+    abstract void reallocate(int capacity);
+
+    /**
+     * Creates a read-only copy of the given number of values at the start of the array, which shares the array.
+     */
+    abstract S snapshot(int size);
+
+    private S share() {
+        // Older copies may still see values after the end of the list, if the last values were removed since
+        shared = Math.max(shared, size);
+        return snapshot(size);
+    }
+
+    /**
+     * Prepares the array for a change which writes the values at and after the given index, and which leaves the given
+     * number of values in the list. The array is copied if any of these values are shared with a read-only copy, which
+     * happens at most once per commit, as the copies are only created when the list is committed or observed. The
+     * array is grown if it cannot hold the given number of values.
+     */
+    private void prepare(int index, int size) {
+        int capacity = capacity();
+        if (index < shared || size > capacity) {
+            reallocate(size > capacity ? Math.max(size, capacity * 2) : capacity);
+            shared = 0;
+        }
+    }
+
+    /**
+     * Prepares the array for replacing the value at the given index.
+     */
+    void prepareSet(int index) {
+        prepare(index, size);
+    }
+
+    /**
+     * Inserts room for the given number of values at the given index, shifting the values at and after this index to
+     * the right.
+     */
+    void insert(int index, int length) {
+        prepare(index, size + length);
+        Object array = array();
+        System.arraycopy(array, index, array, index + length, size - index);
+        size += length;
+    }
+
+    /**
+     * Removes the value at the given index, shifting the values after this index to the left.
+     */
+    void delete(int index) {
+        // Removing the last value does not write to the array, so it never has to be copied
+        prepare(index + 1 < size ? index : size, size - 1);
+        Object array = array();
+        System.arraycopy(array, index + 1, array, index, size - index - 1);
+        size--;
+    }
+
+    void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    <T> void emit(Subject<T> subject, T value) {
+        updates.emit(subject, value);
+    }
+
+    void changed() {
+        updates.changed();
+    }
+
+    void beginUpdate() {
+        updates.begin();
+    }
+
+    void endUpdate(boolean changed) {
+        if (changed) {
+            changed();
+        }
+        updates.end();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values from the list at once. Instead of emitting a value for each removed value, a single value is
+     * emitted by {@link #onCleared()}.
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        // The array is discarded, so it can be handed over to observers without copying it
+        S contents = snapshot(size);
+        size = 0;
+        shared = 0;
+        reallocate(0);
+        if (cleared.hasObservers()) {
+            emit(cleared, contents);
+        }
+        changed();
+    }
+
+    /**
+     * Starts a transaction on the list. Until the transaction is closed, all events are held back. Once the outermost
+     * transaction is closed, these events are emitted, followed by a single copy for {@link #observableChanges()}.
+     * Transactions can be nested.
+     *
+     * @return The {@link Transaction} object, which should be closed to end the transaction.
+     */
+    public Transaction beginTransaction() {
+        return updates.transaction();
+    }
+
+    /**
+     * Emits a read-only copy of the list on subscription and whenever it the list is updated. The copy shares the
+     * array of the list until the values it contains are changed, so values can be appended to the list without
+     * copying it, and the array is copied at most once per change or transaction. No copies are created while there
+     * are no observers.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<S> observableChanges() {
+        return items.observable();
+    }
+
+    /**
+     * Emits a read-only copy of the list on subscription and at most one copy per interval afterwards, which is the
+     * latest copy of an interval in which the list was changed. A copy is taken on the thread that changes the list,
+     * once per change or transaction, and shares the array of the list like the copies of
+     * {@link #observableChanges()}. The given scheduler is only used to time the intervals and to emit the copies.
+     *
+     * @param interval The minimum time between two copies.
+     * @param unit The unit of the interval.
+     * @param scheduler The scheduler on which the copies are emitted.
+     * @return The {@link Observable} object.
+     */
+    public Observable<S> observableChanges(long interval, TimeUnit unit, Scheduler scheduler) {
+        return SnapshotSubject.throttle(items.copies(), interval, unit, scheduler);
+    }
+
+    /**
+     * Returns an observable which emits a value when all values are removed from the list at once by {@link #clear()}.
+     * The value emitted is a read-only copy of the list before it was cleared. No values are emitted for the removed
+     * values individually.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<S> onCleared() {
+        return Observable.wrap(cleared);
+    }
+
+}
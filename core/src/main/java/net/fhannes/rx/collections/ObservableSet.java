@@ -18,11 +18,19 @@
  */
 package net.fhannes.rx.collections;
 
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
-import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
 import io.reactivex.subjects.PublishSubject;
+import net.fhannes.rx.collections.util.Pair;
+import net.fhannes.rx.collections.util.PersistentMap;
+import net.fhannes.rx.collections.util.SetChange;
+import net.fhannes.rx.collections.util.SnapshotDelta;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * This class is a reactive set. It is a wrapper around a standard {@link Set} object, providing various Observable
@@ -33,32 +41,103 @@ import java.util.*;
 public class ObservableSet<E> implements Set<E>, ObservableCollection<E, Set<E>> {
 
     private Set<E> set;
-    private BehaviorSubject<Set<E>> items = BehaviorSubject.create();
+    private SnapshotSubject<Set<E>> items =
+            new SnapshotSubject<>(() -> Collections.unmodifiableSet(new HashSet<>(this)));
     private PublishSubject<E> added = PublishSubject.create();
     private PublishSubject<E> removed = PublishSubject.create();
+    private PublishSubject<Set<E>> cleared = PublishSubject.create();
+    private PublishSubject<SetChange<E>> changes = PublishSubject.create();
+    private ListenerList<SetListener<? super E>> listeners = new ListenerList<>();
 
-    private boolean updating = false;
+    private UpdateTracker updates = new UpdateTracker(this::commit);
+    private SetChange.Builder<E> change;
 
     ObservableSet(Set<E> set) {
         this.set = set;
-        changed();
     }
 
     private void changed() {
-        if (!updating) {
-            items.onNext(Collections.unmodifiableSet(new HashSet<>(this)));
+        updates.changed();
+    }
+
+    /**
+     * Emits the changes made to the set and a read-only copy of it, once all updates in progress have ended.
+     */
+    private void commit() {
+        if (change != null) {
+            SetChange.Builder<E> c = change;
+            change = null;
+            if (!c.isEmpty()) {
+                changes.onNext(c.build());
+            }
+        }
+        items.changed();
+    }
+
+    /**
+     * Returns the builder used to collect the changes for {@link #onChanges()}, or null if nobody observes them.
+     */
+    private SetChange.Builder<E> change() {
+        if (change == null && changes.hasObservers()) {
+            change = new SetChange.Builder<>();
+        }
+        return change;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fireAdded(E element) {
+        for (Object listener : listeners.get()) {
+            ((SetListener<? super E>) listener).onAdded(element);
+        }
+        updates.emit(added, element);
+        if (change() != null) {
+            change.add(element);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fireRemoved(E element) {
+        for (Object listener : listeners.get()) {
+            ((SetListener<? super E>) listener).onRemoved(element);
+        }
+        updates.emit(removed, element);
+        if (change() != null) {
+            change.remove(element);
         }
     }
 
     private void beginUpdate() {
-        updating = true;
+        updates.begin();
     }
 
     private void endUpdate(boolean changed) {
-        updating = false;
         if (changed) {
             changed();
         }
+        updates.end();
+    }
+
+    /**
+     * Starts a transaction on the set. Until the transaction is closed, all events are held back. Once the outermost
+     * transaction is closed, these events are emitted, followed by a single value for {@link #onChanges()} and a single
+     * copy for {@link #observableChanges()}. Transactions can be nested.
+     *
+     * @return The {@link Transaction} object, which should be closed to end the transaction.
+     */
+    public Transaction beginTransaction() {
+        return updates.transaction();
+    }
+
+    /**
+     * Performs the given action on the set within a transaction.
+     *
+     * @param action The action to perform.
+     * @see #beginTransaction()
+     */
+    public void batch(Consumer<? super ObservableSet<E>> action) {
+        try (Transaction ignored = beginTransaction()) {
+            action.accept(this);
+        }
     }
 
     /**
@@ -102,7 +181,7 @@ public class ObservableSet<E> implements Set<E>, ObservableCollection<E, Set<E>>
     public boolean add(E e) {
         boolean changed = getSet().add(e);
         if (changed) {
-            added.onNext(e);
+            fireAdded(e);
             changed();
         }
         return changed;
@@ -112,7 +191,7 @@ public class ObservableSet<E> implements Set<E>, ObservableCollection<E, Set<E>>
     public boolean remove(Object o) {
         boolean changed = getSet().remove(o);
         if (changed) {
-            removed.onNext((E) o);
+            fireRemoved((E) o);
             changed();
         }
         return changed;
@@ -162,9 +241,33 @@ public class ObservableSet<E> implements Set<E>, ObservableCollection<E, Set<E>>
         return changed;
     }
 
+    /**
+     * Removes all elements from the set at once. Instead of emitting a value for each removed element, a single value
+     * is emitted by {@link #onCleared()}.
+     */
     @Override
+    @SuppressWarnings("unchecked")
     public void clear() {
+        if (getSet().isEmpty()) {
+            return;
+        }
+        Set<E> contents = null;
+        if (cleared.hasObservers() || changes.hasObservers()) {
+            contents = Collections.unmodifiableSet(new HashSet<>(getSet()));
+        }
         getSet().clear();
+        for (Object listener : listeners.get()) {
+            ((SetListener<? super E>) listener).onCleared();
+        }
+        if (contents != null) {
+            if (cleared.hasObservers()) {
+                updates.emit(cleared, contents);
+            }
+            if (change() != null) {
+                contents.forEach(change::remove);
+            }
+        }
+        changed();
     }
 
     /**
@@ -179,13 +282,30 @@ public class ObservableSet<E> implements Set<E>, ObservableCollection<E, Set<E>>
 
     /**
      * Emits a read-only copy of the list on subscription and whenever it the set is updated. If a method such as
-     * {@link #addAll(Collection)} is used, it will emit a copy only once and only if the set was changed.
+     * {@link #addAll(Collection)} is used, it will emit a copy only once and only if the set was changed. No copies
+     * are created while there are no observers.
      *
      * @return The {@link Observable} object.
      */
     @Override
     public Observable<Set<E>> observableChanges() {
-        return Observable.wrap(items);
+        return items.observable();
+    }
+
+    /**
+     * Emits a read-only copy of the set on subscription and at most one copy per interval afterwards, which is the
+     * latest copy of an interval in which the set was changed. Each copy is derived from the previous copy on the
+     * thread that changes the set, in the same way as those of {@link #observableDeltas()}, which takes O(k log n)
+     * time for a change of k elements. The given scheduler is only used to time the intervals and to emit the copies.
+     *
+     * @param interval The minimum time between two copies.
+     * @param unit The unit of the interval.
+     * @param scheduler The scheduler on which the copies are emitted.
+     * @return The {@link Observable} object.
+     */
+    @Override
+    public Observable<Set<E>> observableChanges(long interval, TimeUnit unit, Scheduler scheduler) {
+        return SnapshotSubject.throttle(observableDeltas().map(SnapshotDelta::getCurrent), interval, unit, scheduler);
     }
 
     /**
@@ -208,4 +328,89 @@ public class ObservableSet<E> implements Set<E>, ObservableCollection<E, Set<E>>
         return Observable.wrap(removed);
     }
 
+    /**
+     * Returns an observable which emits a value when all elements are removed from the set at once by
+     * {@link #clear()}. The value emitted is a read-only copy of the set before it was cleared. No value is emitted by
+     * {@link #onRemoved()} for the removed elements.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<Set<E>> onCleared() {
+        return Observable.wrap(cleared);
+    }
+
+    /**
+     * Returns an observable which emits a value whenever the set is changed. The value emitted is a {@link SetChange}
+     * object, which contains all elements added to and removed from the set. If a method such as
+     * {@link #addAll(Collection)} is used, it will emit only a single value describing all changes made to the set.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<SetChange<E>> onChanges() {
+        return Observable.wrap(changes);
+    }
+
+    /**
+     * Returns a flowable which emits the same values as {@link #onChanges()}, but buffers at most the given number of
+     * values for a slow subscriber. With {@link OverflowStrategy#BUFFER}, the flowable fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException} once the buffer overflows.
+     *
+     * @param strategy What to do when the buffer is full, which cannot be {@link OverflowStrategy#RESYNC}.
+     * @param bufferSize The maximum number of values in the buffer.
+     * @return The {@link Flowable} object.
+     */
+    public Flowable<SetChange<E>> onChanges(OverflowStrategy strategy, int bufferSize) {
+        return RxCollections.toFlowable(onChanges(), strategy, bufferSize);
+    }
+
+    /**
+     * Returns an observable which emits a value whenever the set is changed, which combines the read-only copies of the
+     * set before and after the change with the {@link SetChange} object emitted by {@link #onChanges()}. On
+     * subscription, it emits a value which describes the current contents of the set as being added to an empty set.
+     * Each copy is created by applying the change to the previous copy, so the changes are not determined by comparing
+     * copies. The copies share their structure, so creating a copy takes O(k log n) time and memory for a change of k
+     * elements, rather than copying the whole set.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<SnapshotDelta<Set<E>, SetChange<E>>> observableDeltas() {
+        return Observable.defer(() -> {
+            PersistentMap<E, Boolean> contents = PersistentMap.empty();
+            SetChange.Builder<E> initial = new SetChange.Builder<>();
+            for (E e : getSet()) {
+                contents = contents.plus(e, Boolean.TRUE);
+                initial.add(e);
+            }
+            // Each copy is paired with the map from which the next copy is derived
+            return changes
+                    .scan(Pair.of(contents, SnapshotDelta.of(Collections.<E>emptySet(), keys(contents),
+                            initial.build())), (p, c) -> {
+                        PersistentMap<E, Boolean> current = p.getA();
+                        for (E e : c.getRemoved()) {
+                            current = current.minus(e);
+                        }
+                        for (E e : c.getAdded()) {
+                            current = current.plus(e, Boolean.TRUE);
+                        }
+                        return Pair.of(current, SnapshotDelta.of(p.getB().getCurrent(), keys(current), c));
+                    })
+                    .map(Pair::getB);
+        });
+    }
+
+    private static <E> Set<E> keys(PersistentMap<E, ?> map) {
+        return Collections.unmodifiableSet(map.keySet());
+    }
+
+    /**
+     * Registers a listener which is notified synchronously of all changes made to the set, without creating any event
+     * objects.
+     *
+     * @param listener The given {@link SetListener} object.
+     * @return A {@link Disposable} object which unregisters the listener when it is disposed.
+     */
+    public Disposable addListener(SetListener<? super E> listener) {
+        return listeners.add(listener);
+    }
+
 }
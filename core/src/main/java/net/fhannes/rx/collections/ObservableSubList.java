@@ -0,0 +1,356 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+import net.fhannes.rx.collections.util.Indexed;
+import net.fhannes.rx.collections.util.IndexedChange;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class is a view of a range of elements of an {@link ObservableList}, as returned by
+ * {@link ObservableList#subList(int, int)}. Changes made through the view are applied to the list and emitted by the
+ * list like any other change. Removing a range of elements from the view, for example by {@link #clear()}, removes
+ * them from the list as a single range.
+ * <p>
+ * The view follows the elements it covers while the list is changed. Adding or removing elements before the view
+ * shifts its range, while adding or removing elements within the view grows or shrinks it. Elements added at the
+ * start or at the end of the view are only covered by it if they were added through the view itself. When the list is
+ * cleared, the view becomes empty. Its observables emit the changes which occur within its range, with indices
+ * relative to the start of the view, so replaying these changes always results in the contents of the view. Moving an
+ * element is emitted as its removal followed by its addition, for as far as either index is covered by the view.
+ * Clearing the list is emitted as the removal of every element of the view, each at index 0.
+ * <p>
+ * A single listener on the list keeps the range of the view up to date. The listener only holds a weak reference to the
+ * view, so views which are no longer used do not remain registered on the list.
+ *
+ * @param <E> The type of elements stored in the list.
+ */
+public class ObservableSubList<E> extends AbstractList<E> {
+
+    private final ObservableList<E> list;
+    private final ObservableSubList<E> parent;
+    private int offset;
+    private int size;
+    /**
+     * Whether elements are being added through this view or a view created from it, in which case they are covered by
+     * this view even if they are added at the start or at the end of it.
+     */
+    private boolean claimed;
+
+    private final Subject<Indexed<E>> added = PublishSubject.create();
+    private final Subject<Indexed<E>> removed = PublishSubject.create();
+    private final Subject<IndexedChange<E>> updated = PublishSubject.create();
+    private final Subject<IndexedChange<E>> updatedChanged = PublishSubject.create();
+    private int observers;
+    private Disposable clearListener;
+
+    ObservableSubList(ObservableList<E> list, int fromIndex, int toIndex) {
+        this(list, null, 0, list.size(), fromIndex, toIndex);
+    }
+
+    private ObservableSubList(ObservableList<E> list, ObservableSubList<E> parent, int offset, int size,
+                              int fromIndex, int toIndex) {
+        if (fromIndex < 0) {
+            throw new IndexOutOfBoundsException("fromIndex = " + fromIndex);
+        }
+        if (toIndex > size) {
+            throw new IndexOutOfBoundsException("toIndex = " + toIndex);
+        }
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+        }
+        this.list = list;
+        this.parent = parent;
+        this.offset = offset + fromIndex;
+        this.size = toIndex - fromIndex;
+        Window<E> window = new Window<>(this);
+        window.registration = list.addListener(window);
+    }
+
+    private void checkIndex(int index, int bound) {
+        if (index < 0 || index > bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Marks the elements which are added while the given value is true as covered by this view and the views it was
+     * created from.
+     */
+    private void claim(boolean claimed) {
+        this.claimed = claimed;
+        if (parent != null) {
+            parent.claim(claimed);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public E get(int index) {
+        checkIndex(index, size - 1);
+        return list.get(offset + index);
+    }
+
+    @Override
+    public E set(int index, E element) {
+        checkIndex(index, size - 1);
+        return list.set(offset + index, element);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        checkIndex(index, size);
+        claim(true);
+        try {
+            list.add(offset + index, element);
+        } finally {
+            claim(false);
+        }
+    }
+
+    @Override
+    public E remove(int index) {
+        checkIndex(index, size - 1);
+        return list.remove(offset + index);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        return addAll(size, c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c) {
+        checkIndex(index, size);
+        claim(true);
+        try {
+            return list.addAll(offset + index, c);
+        } finally {
+            claim(false);
+        }
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < toIndex) {
+            list.removeRange(offset + fromIndex, offset + toIndex);
+        }
+    }
+
+    @Override
+    public ObservableSubList<E> subList(int fromIndex, int toIndex) {
+        return new ObservableSubList<>(list, this, offset, size, fromIndex, toIndex);
+    }
+
+    /**
+     * Updates the range of the view for an element which was added to the list at the given index.
+     */
+    private void added(int index, E element) {
+        if (index < offset || (index == offset && !claimed)) {
+            offset++;
+        } else if (index < offset + size || (index == offset + size && claimed)) {
+            size++;
+            if (added.hasObservers()) {
+                list.emit(added, Indexed.of(index - offset, element));
+            }
+        }
+    }
+
+    /**
+     * Updates the range of the view for an element which was removed from the list at the given index.
+     */
+    private void removed(int index, E element) {
+        if (index < offset) {
+            offset--;
+        } else if (index < offset + size) {
+            size--;
+            if (removed.hasObservers()) {
+                list.emit(removed, Indexed.of(index - offset, element));
+            }
+        }
+    }
+
+    private void updated(int index, E oldElement, E newElement) {
+        if (index >= offset && index < offset + size
+                && (updated.hasObservers() || updatedChanged.hasObservers())) {
+            IndexedChange<E> change = IndexedChange.of(index - offset, oldElement, index - offset, newElement);
+            list.emit(updated, change);
+            if (!Objects.equals(oldElement, newElement)) {
+                list.emit(updatedChanged, change);
+            }
+        }
+    }
+
+    /**
+     * A listener which keeps the range of a view up to date. It unregisters itself once the view is no longer used.
+     */
+    private static final class Window<E> implements ListListener<E> {
+
+        private final WeakReference<ObservableSubList<E>> view;
+        private volatile Disposable registration;
+
+        private Window(ObservableSubList<E> view) {
+            this.view = new WeakReference<>(view);
+        }
+
+        /**
+         * Returns the view, or null if it is no longer used, in which case the listener is unregistered.
+         */
+        private ObservableSubList<E> view() {
+            ObservableSubList<E> view = this.view.get();
+            if (view == null && registration != null) {
+                registration.dispose();
+            }
+            return view;
+        }
+
+        @Override
+        public void onAdded(int index, E element) {
+            ObservableSubList<E> view = view();
+            if (view != null) {
+                view.added(index, element);
+            }
+        }
+
+        @Override
+        public void onRemoved(int index, E element) {
+            ObservableSubList<E> view = view();
+            if (view != null) {
+                view.removed(index, element);
+            }
+        }
+
+        @Override
+        public void onUpdated(int index, E oldElement, E newElement) {
+            ObservableSubList<E> view = view();
+            if (view != null) {
+                view.updated(index, oldElement, newElement);
+            }
+        }
+
+        @Override
+        public void onMoved(int oldIndex, int newIndex, E element) {
+            ObservableSubList<E> view = view();
+            if (view != null) {
+                view.removed(oldIndex, element);
+                view.added(newIndex, element);
+            }
+        }
+
+        @Override
+        public void onCleared() {
+            ObservableSubList<E> view = view();
+            if (view != null) {
+                view.offset = 0;
+                view.size = 0;
+            }
+        }
+
+    }
+
+    /**
+     * Returns an observable which emits the values of the given subject, while the listener which emits the removal of
+     * the elements of the view when the list is cleared is registered on the list.
+     */
+    private <T> Observable<T> observe(Subject<T> subject) {
+        return Observable.defer(() -> {
+            attach();
+            return subject.doFinally(this::detach);
+        });
+    }
+
+    private synchronized void attach() {
+        if (observers++ == 0) {
+            clearListener = list.addClearListener(this::cleared);
+        }
+    }
+
+    private synchronized void detach() {
+        if (--observers == 0) {
+            clearListener.dispose();
+            clearListener = null;
+        }
+    }
+
+    /**
+     * Emits the removal of the elements of the view, as the list is being cleared.
+     */
+    private void cleared(List<E> contents) {
+        for (E element : contents.subList(offset, offset + size)) {
+            list.emit(removed, Indexed.of(0, element));
+        }
+    }
+    /**
+     * Returns an observable which emits a value when a new element is added to the list within the range of the view.
+     * The value emitted is an {@link Indexed} object, which contains the index of the added element in the view and the
+     * element itself.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<Indexed<E>> onAdded() {
+        return observe(added);
+    }
+
+    /**
+     * Returns an observable which emits a value when an element is removed from the list within the range of the
+     * view, including when the list is cleared. The value emitted is an {@link Indexed} object, which contains the
+     * index of the removed element in the view and the element itself.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<Indexed<E>> onRemoved() {
+        return observe(removed);
+    }
+
+    /**
+     * Returns an observable which emits a value when an element in the list within the range of the view is updated
+     * with a new value. The value emitted is an {@link IndexedChange} object, which contains the index of the updated
+     * element in the view combined with the old and new elements.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<IndexedChange<E>> onUpdated() {
+        return observe(updated);
+    }
+
+    /**
+     * Returns an observable which emits a value when an element in the list within the range of the view is updated
+     * with a new value, which differs from the old value at that index. The value emitted is an {@link IndexedChange}
+     * object, which contains the index of the updated element in the view combined with the old and new elements.
+     *
+     * @return The {@link Observable} object.
+     */
+    public Observable<IndexedChange<E>> onUpdatedChanged() {
+        return observe(updatedChanged);
+    }
+
+}
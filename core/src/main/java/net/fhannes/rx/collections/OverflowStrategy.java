@@ -0,0 +1,53 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.Flowable;
+
+/**
+ * Determines what happens when the values of a {@link Flowable} returned by a reactive collection are emitted faster
+ * than its subscriber requests them, and its buffer is full.
+ */
+public enum OverflowStrategy {
+
+    /**
+     * The flowable fails with a {@link io.reactivex.exceptions.MissingBackpressureException}.
+     */
+    BUFFER,
+
+    /**
+     * New values are dropped until the subscriber requests more values.
+     */
+    DROP,
+
+    /**
+     * Only the most recent value is kept until the subscriber requests more values, without using a buffer.
+     */
+    LATEST,
+
+    /**
+     * The oldest values in the buffer are dropped, and the next value delivered to the subscriber describes all
+     * changes made to the collection since the last value it received, based on read-only copies of the collection.
+     * This is supported by {@link ObservableList#onChanges(OverflowStrategy, int)}, while the flowables returned by
+     * {@link ObservableCollection#observableChanges(OverflowStrategy, int)} handle it like {@link #LATEST}, as every
+     * copy describes the entire collection. Other flowables do not support it.
+     */
+    RESYNC
+
+}
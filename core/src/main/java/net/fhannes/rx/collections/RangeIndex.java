@@ -0,0 +1,138 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * An index of values associated with ranges of keys, which finds all values whose range contains a given key. The
+ * ranges are split at their bounds into segments, each of which stores the values of all ranges covering it, so a
+ * lookup takes logarithmic time in the number of segments plus the number of matching values. Adding or removing a
+ * range copies the arrays of the segments it covers.
+ * <p>
+ * Lookups can be performed concurrently with changes to the index, while changes are synchronized.
+ *
+ * @param <K> The type of keys.
+ * @param <T> The type of values.
+ */
+class RangeIndex<K, T> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * The values of all ranges covering the keys from each key up to the next key.
+     */
+    private final ConcurrentSkipListMap<K, Object[]> segments;
+
+    /**
+     * @param comparator The comparator of the keys, or null if they are compared by their natural ordering.
+     */
+    RangeIndex(Comparator<? super K> comparator) {
+        this.segments = new ConcurrentSkipListMap<>(comparator);
+    }
+
+    /**
+     * Checks whether the index does not contain any ranges.
+     *
+     * @return True if the index is empty.
+     */
+    boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Returns the values of all ranges which contain the given key. The returned array must not be modified.
+     *
+     * @param key The given key.
+     * @return The array of values.
+     */
+    Object[] get(K key) {
+        Map.Entry<K, Object[]> segment = segments.floorEntry(key);
+        return segment == null ? EMPTY : segment.getValue();
+    }
+
+    /**
+     * Adds a value for the range of keys from the given lower bound, inclusive, to the given upper bound, exclusive.
+     *
+     * @param from The lower bound of the range.
+     * @param to The upper bound of the range.
+     * @param value The given value.
+     */
+    synchronized void add(K from, K to, T value) {
+        split(to);
+        split(from);
+        for (K key : segments.subMap(from, true, to, false).keySet()) {
+            Object[] values = segments.get(key);
+            Object[] copy = Arrays.copyOf(values, values.length + 1);
+            copy[values.length] = value;
+            segments.put(key, copy);
+        }
+    }
+
+    /**
+     * Removes a value which was added for the given range of keys.
+     *
+     * @param from The lower bound of the range.
+     * @param to The upper bound of the range.
+     * @param value The given value.
+     */
+    synchronized void remove(K from, K to, T value) {
+        for (K key : segments.subMap(from, true, to, false).keySet()) {
+            Object[] values = segments.get(key);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == value) {
+                    Object[] copy = new Object[values.length - 1];
+                    System.arraycopy(values, 0, copy, 0, i);
+                    System.arraycopy(values, i + 1, copy, i, values.length - i - 1);
+                    segments.put(key, copy.length == 0 ? EMPTY : copy);
+                    break;
+                }
+            }
+        }
+        merge(to);
+        merge(from);
+    }
+
+    /**
+     * Starts a new segment at the given key, which initially covers the same values as the segment it is split from.
+     */
+    private void split(K key) {
+        if (!segments.containsKey(key)) {
+            Map.Entry<K, Object[]> segment = segments.floorEntry(key);
+            segments.put(key, segment == null ? EMPTY : segment.getValue());
+        }
+    }
+
+    /**
+     * Merges the segment starting at the given key into the preceding segment if they cover the same values.
+     */
+    private void merge(K key) {
+        Object[] values = segments.get(key);
+        if (values != null) {
+            Map.Entry<K, Object[]> previous = segments.lowerEntry(key);
+            if (Arrays.equals(previous == null ? EMPTY : previous.getValue(), values)) {
+                segments.remove(key);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import java.util.Random;
+
+/**
+ * A list of flags which counts the number of set flags before any index in logarithmic time. Flags can be inserted
+ * and removed at any index, also in logarithmic time. The flags are stored in a randomized balanced tree, of which
+ * each node stores the number of flags and set flags in its subtree.
+ */
+class RankTree {
+
+    private final Random random = new Random();
+    private Node root;
+    /**
+     * The results of the most recent {@link #split(Node, int)}.
+     */
+    private Node left, right;
+
+    /**
+     * Returns the number of flags.
+     *
+     * @return The number of flags.
+     */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the flag at the given index.
+     *
+     * @param index The given index.
+     * @return The flag.
+     */
+    boolean get(int index) {
+        checkIndex(index, size() - 1);
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.flag;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of set flags before the given index.
+     *
+     * @param index The given index, which may be equal to the number of flags.
+     * @return The number of set flags.
+     */
+    int rank(int index) {
+        checkIndex(index, size());
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (index <= leftSize) {
+                node = node.left;
+            } else {
+                rank += count(node.left) + (node.flag ? 1 : 0);
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Inserts a flag at the given index.
+     *
+     * @param index The given index.
+     * @param flag The flag to insert.
+     */
+    void insert(int index, boolean flag) {
+        checkIndex(index, size());
+        split(root, index);
+        Node l = left, r = right;
+        root = merge(merge(l, new Node(flag, random.nextInt())), r);
+    }
+
+    /**
+     * Removes the flag at the given index.
+     *
+     * @param index The given index.
+     * @return The removed flag.
+     */
+    boolean remove(int index) {
+        checkIndex(index, size() - 1);
+        split(root, index);
+        Node l = left;
+        split(right, 1);
+        Node removed = left, r = right;
+        root = merge(l, r);
+        return removed.flag;
+    }
+
+    /**
+     * Changes the flag at the given index.
+     *
+     * @param index The given index.
+     * @param flag The new flag.
+     * @return The old flag.
+     */
+    boolean set(int index, boolean flag) {
+        boolean old = get(index);
+        if (old != flag) {
+            set(root, index, flag);
+        }
+        return old;
+    }
+
+    /**
+     * Removes all flags.
+     */
+    void clear() {
+        root = null;
+    }
+
+    private static void set(Node node, int index, boolean flag) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            set(node.left, index, flag);
+        } else if (index > leftSize) {
+            set(node.right, index - leftSize - 1, flag);
+        } else {
+            node.flag = flag;
+        }
+        node.update();
+    }
+
+    /**
+     * Splits the given tree into the trees of the flags before and from the given index, which are stored in
+     * {@link #left} and {@link #right}.
+     */
+    private void split(Node node, int index) {
+        if (node == null) {
+            left = right = null;
+        } else if (size(node.left) < index) {
+            split(node.right, index - size(node.left) - 1);
+            node.right = left;
+            node.update();
+            left = node;
+        } else {
+            split(node.left, index);
+            node.left = right;
+            node.update();
+            right = node;
+        }
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        } else if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            b.update();
+            return b;
+        }
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int count(Node node) {
+        return node == null ? 0 : node.count;
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index > bound) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+    }
+
+    private static final class Node {
+
+        private final int priority;
+        private boolean flag;
+        private int size;
+        private int count;
+        private Node left, right;
+
+        private Node(boolean flag, int priority) {
+            this.flag = flag;
+            this.priority = priority;
+            update();
+        }
+
+        /**
+         * Recalculates the number of flags and set flags in the subtree of this node.
+         */
+        private void update() {
+            size = 1 + RankTree.size(left) + RankTree.size(right);
+            count = (flag ? 1 : 0) + RankTree.count(left) + RankTree.count(right);
+        }
+
+    }
+
+}
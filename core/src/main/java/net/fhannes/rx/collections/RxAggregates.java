@@ -0,0 +1,567 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Contains static methods to compute aggregates of reactive collections, such as the sum of their elements. Every
+ * aggregate is computed once on subscription and then kept up to date by a listener on the collection, which adds
+ * and removes the changed elements, so a change only takes constant or logarithmic time regardless of the size of the
+ * collection. Values are only emitted when the aggregate changes, and only once the changes of an update or
+ * transaction have all been made, so a method such as {@link Collection#addAll(Collection)} emits at most one value.
+ * <p>
+ * Sums and averages are kept with a compensated summation, so removing elements does not accumulate rounding errors.
+ * Minima and maxima are kept in a sorted multiset of the elements, which keeps the elements tied by the comparator
+ * apart.
+ */
+public final class RxAggregates {
+
+    /**
+     * This is a utility class with static methods, it should not be instantiated.
+     */
+    private RxAggregates() {
+
+    }
+
+    /**
+     * Returns an observable which emits the number of the elements of the list which satisfy the given predicate. It
+     * emits the current number on subscription and a new value whenever the number changes.
+     *
+     * @param list The given list.
+     * @param predicate The given predicate.
+     * @param <E> The type of elements stored in the list.
+     * @return The {@link Observable} object.
+     */
+    public static <E> Observable<Integer> count(ObservableList<E> list, Predicate<? super E> predicate) {
+        Objects.requireNonNull(predicate);
+        return aggregate(list.getList(), list::addListener, list.onChanges(), () -> new Count<>(predicate));
+    }
+
+    /**
+     * Returns an observable which emits the sum of the given function applied to the elements of the list. It emits the
+     * current sum on subscription and a new value whenever the sum changes.
+     *
+     * @param list The given list.
+     * @param function The given function.
+     * @param <E> The type of elements stored in the list.
+     * @return The {@link Observable} object.
+     */
+    public static <E> Observable<Double> sum(ObservableList<E> list, ToDoubleFunction<? super E> function) {
+        Objects.requireNonNull(function);
+        return aggregate(list.getList(), list::addListener, list.onChanges(), () -> new Sum<>(function));
+    }
+
+    /**
+     * Returns an observable which emits the average of the given function applied to the elements of the list, or
+     * {@link Double#NaN} if the list is empty. It emits the current average on subscription and a new value whenever
+     * the average changes.
+     *
+     * @param list The given list.
+     * @param function The given function.
+     * @param <E> The type of elements stored in the list.
+     * @return The {@link Observable} object.
+     */
+    public static <E> Observable<Double> average(ObservableList<E> list, ToDoubleFunction<? super E> function) {
+        Objects.requireNonNull(function);
+        return aggregate(list.getList(), list::addListener, list.onChanges(), () -> new Average<>(function));
+    }
+
+    /**
+     * Returns an observable which emits the smallest of the elements of the list according to the given comparator, or
+     * an empty {@link Optional} if the list is empty. It emits the current minimum on subscription and a new value
+     * whenever the minimum changes.
+     *
+     * @param list The given list.
+     * @param comparator The given comparator.
+     * @param <E> The type of elements stored in the list.
+     * @return The {@link Observable} object.
+     */
+    public static <E> Observable<Optional<E>> min(ObservableList<E> list, Comparator<? super E> comparator) {
+        Objects.requireNonNull(comparator);
+        return aggregate(list.getList(), list::addListener, list.onChanges(), () -> new Extreme<E>(comparator));
+    }
+
+    /**
+     * Returns an observable which emits the largest of the elements of the list according to the given comparator, or
+     * an empty {@link Optional} if the list is empty. It emits the current maximum on subscription and a new value
+     * whenever the maximum changes.
+     *
+     * @param list The given list.
+     * @param comparator The given comparator.
+     * @param <E> The type of elements stored in the list.
+     * @return The {@link Observable} object.
+     */
+    public static <E> Observable<Optional<E>> max(ObservableList<E> list, Comparator<? super E> comparator) {
+        Objects.requireNonNull(comparator);
+        return aggregate(list.getList(), list::addListener, list.onChanges(),
+                () -> new Extreme<E>(Collections.reverseOrder(comparator)));
+    }
+
+    /**
+     * Returns an observable which emits the number of the elements of the set which satisfy the given predicate. It
+     * emits the current number on subscription and a new value whenever the number changes.
+     *
+     * @param set The given set.
+     * @param predicate The given predicate.
+     * @param <E> The type of elements stored in the set.
+     * @return The {@link Observable} object.
+     */
+    public static <E> Observable<Integer> count(ObservableSet<E> set, Predicate<? super E> predicate) {
+        Objects.requireNonNull(predicate);
+        return aggregate(set.getSet(), set::addListener, set.onChanges(), () -> new Count<>(predicate));
+    }
+
+    /**
+     * Returns an observable which emits the sum of the given function applied to the elements of the set. It emits the
+     * current sum on subscription and a new value whenever the sum changes.
+     *
+     * @param set The given set.
+     * @param function The given function.
+     * @param <E> The type of elements stored in the set.
+     * @return The {@link Observable} object.
+     */
+    public static <E> Observable<Double> sum(ObservableSet<E> set, ToDoubleFunction<? super E> function) {
+        Objects.requireNonNull(function);
+        return aggregate(set.getSet(), set::addListener, set.onChanges(), () -> new Sum<>(function));
+    }
+
+    /**
+     * Returns an observable which emits the average of the given function applied to the elements of the set, or {@link
+     * Double#NaN} if the set is empty. It emits the current average on subscription and a new value whenever the
+     * average changes.
+     *
+     * @param set The given set.
+     * @param function The given function.
+     * @param <E> The type of elements stored in the set.
+     * @return The {@link Observable} object.
+     */
+    public static <E> Observable<Double> average(ObservableSet<E> set, ToDoubleFunction<? super E> function) {
+        Objects.requireNonNull(function);
+        return aggregate(set.getSet(), set::addListener, set.onChanges(), () -> new Average<>(function));
+    }
+
+    /**
+     * Returns an observable which emits the smallest of the elements of the set according to the given comparator, or
+     * an empty {@link Optional} if the set is empty. It emits the current minimum on subscription and a new value
+     * whenever the minimum changes.
+     *
+     * @param set The given set.
+     * @param comparator The given comparator.
+     * @param <E> The type of elements stored in the set.
+     * @return The {@link Observable} object.
+     */
+    public static <E> Observable<Optional<E>> min(ObservableSet<E> set, Comparator<? super E> comparator) {
+        Objects.requireNonNull(comparator);
+        return aggregate(set.getSet(), set::addListener, set.onChanges(), () -> new Extreme<E>(comparator));
+    }
+
+    /**
+     * Returns an observable which emits the largest of the elements of the set according to the given comparator, or an
+     * empty {@link Optional} if the set is empty. It emits the current maximum on subscription and a new value whenever
+     * the maximum changes.
+     *
+     * @param set The given set.
+     * @param comparator The given comparator.
+     * @param <E> The type of elements stored in the set.
+     * @return The {@link Observable} object.
+     */
+    public static <E> Observable<Optional<E>> max(ObservableSet<E> set, Comparator<? super E> comparator) {
+        Objects.requireNonNull(comparator);
+        return aggregate(set.getSet(), set::addListener, set.onChanges(),
+                () -> new Extreme<E>(Collections.reverseOrder(comparator)));
+    }
+
+    /**
+     * Returns an observable which emits the number of the values of the map which satisfy the given predicate. It emits
+     * the current number on subscription and a new value whenever the number changes.
+     *
+     * @param map The given map.
+     * @param predicate The given predicate.
+     * @param <K> The type of keys stored in the map.
+     * @param <V> The type of values stored in the map.
+     * @return The {@link Observable} object.
+     */
+    public static <K, V> Observable<Integer> count(ObservableMap<K, V> map, Predicate<? super V> predicate) {
+        Objects.requireNonNull(predicate);
+        return aggregate(map.getMap().values(), map::addListener, map.onChanges(), () -> new Count<>(predicate));
+    }
+
+    /**
+     * Returns an observable which emits the sum of the given function applied to the values of the map. It emits the
+     * current sum on subscription and a new value whenever the sum changes.
+     *
+     * @param map The given map.
+     * @param function The given function.
+     * @param <K> The type of keys stored in the map.
+     * @param <V> The type of values stored in the map.
+     * @return The {@link Observable} object.
+     */
+    public static <K, V> Observable<Double> sum(ObservableMap<K, V> map, ToDoubleFunction<? super V> function) {
+        Objects.requireNonNull(function);
+        return aggregate(map.getMap().values(), map::addListener, map.onChanges(), () -> new Sum<>(function));
+    }
+
+    /**
+     * Returns an observable which emits the average of the given function applied to the values of the map, or {@link
+     * Double#NaN} if the map is empty. It emits the current average on subscription and a new value whenever the
+     * average changes.
+     *
+     * @param map The given map.
+     * @param function The given function.
+     * @param <K> The type of keys stored in the map.
+     * @param <V> The type of values stored in the map.
+     * @return The {@link Observable} object.
+     */
+    public static <K, V> Observable<Double> average(ObservableMap<K, V> map, ToDoubleFunction<? super V> function) {
+        Objects.requireNonNull(function);
+        return aggregate(map.getMap().values(), map::addListener, map.onChanges(), () -> new Average<>(function));
+    }
+
+    /**
+     * Returns an observable which emits the smallest of the values of the map according to the given comparator, or an
+     * empty {@link Optional} if the map is empty. It emits the current minimum on subscription and a new value whenever
+     * the minimum changes.
+     *
+     * @param map The given map.
+     * @param comparator The given comparator.
+     * @param <K> The type of keys stored in the map.
+     * @param <V> The type of values stored in the map.
+     * @return The {@link Observable} object.
+     */
+    public static <K, V> Observable<Optional<V>> min(ObservableMap<K, V> map, Comparator<? super V> comparator) {
+        Objects.requireNonNull(comparator);
+        return aggregate(map.getMap().values(), map::addListener, map.onChanges(), () -> new Extreme<V>(comparator));
+    }
+
+    /**
+     * Returns an observable which emits the largest of the values of the map according to the given comparator, or an
+     * empty {@link Optional} if the map is empty. It emits the current maximum on subscription and a new value whenever
+     * the maximum changes.
+     *
+     * @param map The given map.
+     * @param comparator The given comparator.
+     * @param <K> The type of keys stored in the map.
+     * @param <V> The type of values stored in the map.
+     * @return The {@link Observable} object.
+     */
+    public static <K, V> Observable<Optional<V>> max(ObservableMap<K, V> map, Comparator<? super V> comparator) {
+        Objects.requireNonNull(comparator);
+        return aggregate(map.getMap().values(), map::addListener, map.onChanges(),
+                () -> new Extreme<V>(Collections.reverseOrder(comparator)));
+    }
+
+    /**
+     * Returns an observable which computes an aggregate for every observer by the accumulators of the given factory.
+     *
+     * @param contents The current elements of the collection.
+     * @param register Registers the given listener on the collection, and returns a {@link Disposable} object which
+     *                 unregisters it.
+     * @param commits Emits a value once the changes of an update or transaction on the collection have all been made.
+     */
+    private static <E, R> Observable<R> aggregate(Collection<E> contents, Function<Feed<E>, Disposable> register,
+                                                  Observable<?> commits,
+                                                  Supplier<? extends Accumulator<E, R>> factory) {
+        return Observable.create(emitter -> {
+            Accumulator<E, R> accumulator = factory.get();
+            // Concurrent collections may notify the accumulator before it has emitted its initial value
+            synchronized (accumulator) {
+                accumulator.emitter = emitter;
+                contents.forEach(accumulator::add);
+                emitter.setDisposable(new CompositeDisposable(register.apply(new Feed<>(accumulator)),
+                        commits.subscribe(c -> accumulator.committed())));
+                accumulator.publish();
+            }
+        });
+    }
+
+    /**
+     * A listener which feeds the changes of a list, a set or the values of a map to an accumulator.
+     */
+    private static final class Feed<E> implements ListListener<E>, SetListener<E>, MapListener<Object, E> {
+
+        private final Accumulator<E, ?> accumulator;
+
+        private Feed(Accumulator<E, ?> accumulator) {
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        public void onAdded(int index, E element) {
+            accumulator.added(element);
+        }
+
+        @Override
+        public void onAdded(E element) {
+            accumulator.added(element);
+        }
+
+        @Override
+        public void onAdded(Object key, E value) {
+            accumulator.added(value);
+        }
+
+        @Override
+        public void onRemoved(int index, E element) {
+            accumulator.removed(element);
+        }
+
+        @Override
+        public void onRemoved(E element) {
+            accumulator.removed(element);
+        }
+
+        @Override
+        public void onRemoved(Object key, E value) {
+            accumulator.removed(value);
+        }
+
+        @Override
+        public void onUpdated(int index, E oldElement, E newElement) {
+            accumulator.updated(oldElement, newElement);
+        }
+
+        @Override
+        public void onUpdated(Object key, E oldValue, E newValue) {
+            accumulator.updated(oldValue, newValue);
+        }
+
+        @Override
+        public void onCleared() {
+            accumulator.cleared();
+        }
+
+    }
+
+    /**
+     * The running state of an aggregate, which emits the aggregate whenever it changes.
+     */
+    private abstract static class Accumulator<E, R> {
+
+        private ObservableEmitter<R> emitter;
+        private R last;
+
+        abstract void add(E element);
+
+        abstract void remove(E element);
+
+        abstract void clear();
+
+        abstract R value();
+
+        final synchronized void added(E element) {
+            add(element);
+        }
+
+        final synchronized void removed(E element) {
+            remove(element);
+        }
+
+        final synchronized void updated(E oldElement, E newElement) {
+            remove(oldElement);
+            add(newElement);
+        }
+
+        final synchronized void cleared() {
+            clear();
+        }
+
+        /**
+         * Emits the aggregate once all changes of an update of the collection have been made, so no intermediate values
+         * are emitted while a transaction or a method such as {@link Collection#addAll(Collection)} is in progress.
+         */
+        final synchronized void committed() {
+            publish();
+        }
+
+        final void publish() {
+            R value = value();
+            if (!value.equals(last)) {
+                last = value;
+                emitter.onNext(value);
+            }
+        }
+
+    }
+
+    private static final class Count<E> extends Accumulator<E, Integer> {
+
+        private final Predicate<? super E> predicate;
+        private int count;
+
+        private Count(Predicate<? super E> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        void add(E element) {
+            if (predicate.test(element)) {
+                count++;
+            }
+        }
+
+        @Override
+        void remove(E element) {
+            if (predicate.test(element)) {
+                count--;
+            }
+        }
+
+        @Override
+        void clear() {
+            count = 0;
+        }
+
+        @Override
+        Integer value() {
+            return count;
+        }
+
+    }
+
+    private static class Sum<E> extends Accumulator<E, Double> {
+
+        private final ToDoubleFunction<? super E> function;
+        private double sum;
+        /**
+         * The rounding errors of the sum, as by Neumaier's variant of Kahan summation.
+         */
+        private double compensation;
+
+        private Sum(ToDoubleFunction<? super E> function) {
+            this.function = function;
+        }
+
+        private void accumulate(double value) {
+            double t = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - t) + value;
+            } else {
+                compensation += (value - t) + sum;
+            }
+            sum = t;
+        }
+
+        @Override
+        void add(E element) {
+            accumulate(function.applyAsDouble(element));
+        }
+
+        @Override
+        void remove(E element) {
+            accumulate(-function.applyAsDouble(element));
+        }
+
+        @Override
+        void clear() {
+            sum = 0;
+            compensation = 0;
+        }
+
+        @Override
+        Double value() {
+            return sum + compensation;
+        }
+
+    }
+
+    private static final class Average<E> extends Sum<E> {
+
+        private int count;
+
+        private Average(ToDoubleFunction<? super E> function) {
+            super(function);
+        }
+
+        @Override
+        void add(E element) {
+            super.add(element);
+            count++;
+        }
+
+        @Override
+        void remove(E element) {
+            super.remove(element);
+            count--;
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            count = 0;
+        }
+
+        @Override
+        Double value() {
+            return count == 0 ? Double.NaN : super.value() / count;
+        }
+
+    }
+
+    private static final class Extreme<E> extends Accumulator<E, Optional<E>> {
+
+        /**
+         * The elements, grouped by the comparator so the extreme elements are the first group. As distinct elements
+         * may be tied by the comparator, each group counts the occurrences of its elements separately, in the order in
+         * which they were first added.
+         */
+        private final TreeMap<E, Map<E, Integer>> groups;
+
+        private Extreme(Comparator<? super E> comparator) {
+            this.groups = new TreeMap<>(comparator);
+        }
+
+        @Override
+        void add(E element) {
+            groups.computeIfAbsent(element, e -> new LinkedHashMap<>()).merge(element, 1, Integer::sum);
+        }
+
+        @Override
+        void remove(E element) {
+            groups.computeIfPresent(element, (e, group) -> {
+                group.computeIfPresent(element, (k, count) -> count == 1 ? null : count - 1);
+                return group.isEmpty() ? null : group;
+            });
+        }
+
+        @Override
+        void clear() {
+            groups.clear();
+        }
+
+        @Override
+        Optional<E> value() {
+            if (groups.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(groups.firstEntry().getValue().keySet().iterator().next());
+        }
+
+    }
+
+}
@@ -18,7 +18,12 @@
  */
 package net.fhannes.rx.collections;
 
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Contains static methods to convert any supported collection to a reactive collection.
@@ -62,8 +67,88 @@ public final class RxCollections {
         return new ObservableSet<>(set);
     }
 
+    /**
+     * Creates a reactive map, wrapped around the given map.
+     *
+     * @param map A given map.
+     * @param <K> The type of the keys stored in the given map.
+     * @param <V> The type of the values stored in the given map.
+     * @return A reactive {@link ObservableMap} instance.
+     */
     public static <K, V> ObservableMap<K, V> of(Map<K, V> map) {
+        if (map instanceof ConcurrentHashMap) {
+            return new ObservableConcurrentMap<>((ConcurrentHashMap<K, V>) map);
+        }
         return new ObservableMap<>(map);
     }
 
+    /**
+     * Creates a reactive sorted map, wrapped around the given map.
+     *
+     * @param map A given map.
+     * @param <K> The type of the keys stored in the given map.
+     * @param <V> The type of the values stored in the given map.
+     * @return A reactive {@link ObservableNavigableMap} instance.
+     */
+    public static <K, V> ObservableNavigableMap<K, V> of(NavigableMap<K, V> map) {
+        return new ObservableNavigableMap<>(map);
+    }
+
+    /**
+     * Converts an observable of a reactive collection to a flowable, which buffers at most the given number of values
+     * for a slow subscriber. With {@link OverflowStrategy#BUFFER}, the flowable fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException} once the buffer overflows.
+     *
+     * @param source The given observable.
+     * @param strategy What to do when the buffer is full, which cannot be {@link OverflowStrategy#RESYNC}.
+     * @param bufferSize The maximum number of values in the buffer, which is ignored by
+     *                   {@link OverflowStrategy#LATEST}.
+     * @param <T> The type of values emitted by the observable.
+     * @return The {@link Flowable} object.
+     */
+    public static <T> Flowable<T> toFlowable(Observable<T> source, OverflowStrategy strategy, int bufferSize) {
+        switch (strategy) {
+            case BUFFER:
+                return source.toFlowable(BackpressureStrategy.MISSING).onBackpressureBuffer(bufferSize);
+            case DROP:
+                // The values are buffered by requesting them in batches, which are dropped while no values are
+                // requested
+                return source.toFlowable(BackpressureStrategy.DROP).rebatchRequests(bufferSize);
+            case LATEST:
+                return source.toFlowable(BackpressureStrategy.LATEST);
+            default:
+                throw new IllegalArgumentException(strategy + " is not supported by this observable");
+        }
+    }
+
+    /**
+     * Creates a reactive list of primitive {@code int} values, containing a copy of the given values.
+     *
+     * @param values The given values.
+     * @return A reactive {@link ObservableIntList} instance.
+     */
+    public static ObservableIntList of(int... values) {
+        return new ObservableIntList(values);
+    }
+
+    /**
+     * Creates a reactive list of primitive {@code long} values, containing a copy of the given values.
+     *
+     * @param values The given values.
+     * @return A reactive {@link ObservableLongList} instance.
+     */
+    public static ObservableLongList of(long... values) {
+        return new ObservableLongList(values);
+    }
+
+    /**
+     * Creates a reactive list of primitive {@code double} values, containing a copy of the given values.
+     *
+     * @param values The given values.
+     * @return A reactive {@link ObservableDoubleList} instance.
+     */
+    public static ObservableDoubleList of(double... values) {
+        return new ObservableDoubleList(values);
+    }
+
 }
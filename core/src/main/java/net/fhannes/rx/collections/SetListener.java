@@ -0,0 +1,55 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+/**
+ * A listener which is notified whenever an {@link ObservableSet} is changed. Listeners receive the elements as
+ * arguments, so no event objects have to be created to notify them. They are notified synchronously, at the moment the
+ * set is changed, even while a transaction on the set is in progress.
+ *
+ * @param <E> The type of elements stored in the set.
+ */
+public interface SetListener<E> {
+
+    /**
+     * Called when an element is added to the set.
+     *
+     * @param element The added element.
+     */
+    default void onAdded(E element) {
+
+    }
+
+    /**
+     * Called when an element is removed from the set.
+     *
+     * @param element The removed element.
+     */
+    default void onRemoved(E element) {
+
+    }
+
+    /**
+     * Called when all elements are removed from the set at once.
+     */
+    default void onCleared() {
+
+    }
+
+}
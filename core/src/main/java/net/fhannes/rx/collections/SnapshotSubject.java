@@ -0,0 +1,135 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Emits read-only copies of a reactive collection to its observers. A copy is only created when the collection is
+ * changed while there are observers to receive it. Otherwise the current copy is marked as outdated and a new one is
+ * created once an observer subscribes.
+ * <p>
+ * Changes may be reported by multiple threads. Only one thread emits copies at a time, and it creates another copy if
+ * the collection was changed while it was emitting, so the last copy emitted is never outdated.
+ *
+ * @param <C> The type of the copies.
+ */
+class SnapshotSubject<C> {
+
+    private final Supplier<C> factory;
+    private final BehaviorSubject<C> items = BehaviorSubject.create();
+    private final Subject<C> copies = PublishSubject.<C>create().toSerialized();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean dirty = true;
+
+    /**
+     * @param factory Creates a read-only copy of the current state of the collection.
+     */
+    SnapshotSubject(Supplier<C> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Checks whether any observer is currently subscribed to the copies.
+     *
+     * @return True if there are observers.
+     */
+    boolean hasObservers() {
+        return items.hasObservers();
+    }
+
+    /**
+     * Notifies the subject that the collection was changed. A new copy is emitted immediately if there are observers.
+     */
+    void changed() {
+        if (copies.hasObservers()) {
+            copies.onNext(factory.get());
+        }
+        if (!items.hasObservers()) {
+            dirty = true;
+        } else {
+            emit();
+        }
+    }
+
+    /**
+     * Emits a new copy, unless another thread is already emitting, in which case that thread emits it instead.
+     */
+    private void emit() {
+        if (wip.getAndIncrement() == 0) {
+            int missed = 1;
+            do {
+                dirty = false;
+                items.onNext(factory.get());
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+
+    /**
+     * Returns an observable which emits the latest copy on subscription and any subsequent copies.
+     *
+     * @return The {@link Observable} object.
+     */
+    Observable<C> observable() {
+        return Observable.defer(() -> {
+            if (dirty) {
+                emit();
+            }
+            return items;
+        });
+    }
+
+    /**
+     * Returns an observable which emits a new copy on subscription and whenever the collection is changed. Unlike
+     * {@link #observable()}, every copy is created on the thread which reports the change, even if another thread is
+     * emitting a copy at the same time.
+     *
+     * @return The {@link Observable} object.
+     */
+    Observable<C> copies() {
+        // The changes are observed before the first copy is created, so no change can be missed
+        return Observable.merge(copies, Observable.fromCallable(factory::get));
+    }
+
+    /**
+     * Returns an observable which emits the first of the given copies immediately, and afterwards the latest copy of
+     * each interval in which any copies were emitted. The copies are still created by the given observable, the
+     * scheduler is only used to time the intervals and to emit the copies.
+     *
+     * @param copies An observable which emits a copy on subscription and whenever the collection is changed.
+     * @param interval The length of the interval.
+     * @param unit The unit of the length of the interval.
+     * @param scheduler The scheduler on which the copies are emitted.
+     * @param <T> The type of the copies.
+     * @return The {@link Observable} object.
+     */
+    static <T> Observable<T> throttle(Observable<T> copies, long interval, TimeUnit unit, Scheduler scheduler) {
+        return copies.publish(c -> Observable.merge(c.take(1), c.skip(1).sample(interval, unit, scheduler)));
+    }
+
+}
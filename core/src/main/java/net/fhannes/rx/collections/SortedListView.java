@@ -0,0 +1,115 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A view of the elements of a list, sorted by a comparator. Elements which are equal according to the comparator are
+ * kept in the order in which they were added. The index of an element is found by a binary search, so changes to the
+ * source list take logarithmic time, apart from scanning any elements equal to a removed element according to the
+ * comparator. Moving elements within the source list does not change the view.
+ *
+ * @param <E> The type of elements stored in the list.
+ */
+class SortedListView<E> extends ObservableListView<E> {
+
+    private final Comparator<? super E> comparator;
+
+    SortedListView(ObservableList<E> source, Comparator<? super E> comparator) {
+        super(sort(source.getList(), comparator));
+        this.comparator = comparator;
+        follow(source, new ListListener<E>() {
+
+            @Override
+            public void onAdded(int index, E element) {
+                insert(search(element, true), element);
+            }
+
+            @Override
+            public void onRemoved(int index, E element) {
+                delete(find(element));
+            }
+
+            @Override
+            public void onUpdated(int index, E oldElement, E newElement) {
+                int oldIndex = find(oldElement);
+                if (comparator.compare(oldElement, newElement) == 0) {
+                    replace(oldIndex, newElement);
+                } else {
+                    delete(oldIndex);
+                    insert(search(newElement, true), newElement);
+                }
+            }
+
+            @Override
+            public void onCleared() {
+                reset();
+            }
+
+        });
+    }
+
+    private static <E> List<E> sort(List<E> list, Comparator<? super E> comparator) {
+        List<E> sorted = new ArrayList<>(list);
+        sorted.sort(comparator);
+        return sorted;
+    }
+
+    /**
+     * Returns the index of the first element which is greater than the given element, or greater than or equal to it
+     * if the given flag is not set.
+     */
+    private int search(E element, boolean after) {
+        List<E> list = getList();
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int c = comparator.compare(list.get(mid), element);
+            if (c < 0 || (after && c == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the given element in the view.
+     */
+    private int find(E element) {
+        List<E> list = getList();
+        for (int i = search(element, false); i < list.size(); i++) {
+            E e = list.get(i);
+            if (Objects.equals(e, element)) {
+                return i;
+            } else if (comparator.compare(e, element) != 0) {
+                break;
+            }
+        }
+        // The comparator is not consistent with the elements, so the element is looked up by a linear search
+        return list.indexOf(element);
+    }
+
+}
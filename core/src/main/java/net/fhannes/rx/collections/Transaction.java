@@ -0,0 +1,35 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+/**
+ * A transaction on a reactive collection. While a transaction is open, all events of the collection are held back.
+ * When the outermost transaction is closed, the held back events are emitted, followed by a single value describing
+ * all changes and a single read-only copy of the collection. Transactions can be nested and are intended to be used in
+ * a try-with-resources statement.
+ */
+public interface Transaction extends AutoCloseable {
+
+    /**
+     * Closes the transaction. Closing a transaction more than once has no effect.
+     */
+    @Override
+    void close();
+
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.subjects.Subject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the updates of a reactive collection, which can be nested. While an update is in progress, events are held
+ * back until the outermost update ends, at which point they are emitted in order and the collection is notified once
+ * that it was changed.
+ */
+class UpdateTracker {
+
+    private final Runnable commit;
+    private final List<Runnable> pending = new ArrayList<>();
+    private int depth = 0;
+    private boolean changed = false;
+
+    /**
+     * @param commit Emits the changes and the read-only copy of the collection, after the collection was changed.
+     */
+    UpdateTracker(Runnable commit) {
+        this.commit = commit;
+    }
+
+    /**
+     * Checks whether an update is in progress.
+     *
+     * @return True if an update is in progress.
+     */
+    boolean isUpdating() {
+        return depth > 0;
+    }
+
+    /**
+     * Starts a new update, which may be nested in an update already in progress.
+     */
+    void begin() {
+        depth++;
+    }
+
+    /**
+     * Ends the current update. If it is the outermost update, all held back events are emitted and the collection is
+     * committed if it was changed.
+     */
+    void end() {
+        if (depth == 0) {
+            throw new IllegalStateException("No update in progress");
+        }
+        if (--depth == 0) {
+            // Events are emitted in the order in which they were held back, as observers may rely on their indices
+            for (int i = 0; i < pending.size(); i++) {
+                pending.get(i).run();
+            }
+            pending.clear();
+            if (changed) {
+                changed = false;
+                commit.run();
+            }
+        }
+    }
+
+    /**
+     * Starts a new update, which ends when the returned transaction is closed.
+     *
+     * @return The {@link Transaction} object.
+     */
+    Transaction transaction() {
+        begin();
+        return new Transaction() {
+
+            private boolean closed = false;
+
+            @Override
+            public void close() {
+                if (!closed) {
+                    closed = true;
+                    end();
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Emits a value to the given subject, or holds it back while an update is in progress.
+     *
+     * @param subject The given subject.
+     * @param value The value to emit.
+     * @param <T> The type of the value.
+     */
+    <T> void emit(Subject<T> subject, T value) {
+        if (depth > 0) {
+            pending.add(() -> subject.onNext(value));
+        } else {
+            subject.onNext(value);
+        }
+    }
+
+    /**
+     * Notifies the tracker that the collection was changed. The collection is committed immediately, unless an update
+     * is in progress.
+     */
+    void changed() {
+        if (depth > 0) {
+            changed = true;
+        } else {
+            commit.run();
+        }
+    }
+
+}
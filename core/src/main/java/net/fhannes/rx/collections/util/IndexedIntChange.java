@@ -0,0 +1,65 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections.util;
+
+/**
+ * Represents an indexed primitive {@code int} value which is replaced by a new value. Unlike {@link IndexedChange},
+ * neither the index nor the values are boxed.
+ */
+public class IndexedIntChange {
+
+    private final int index;
+    private final int oldValue;
+    private final int newValue;
+
+    public static IndexedIntChange of(int index, int oldValue, int newValue) {
+        return new IndexedIntChange(index, oldValue, newValue);
+    }
+
+    private IndexedIntChange(int index, int oldValue, int newValue) {
+        this.index = index;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getOldValue() {
+        return oldValue;
+    }
+
+    public int getNewValue() {
+        return newValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof IndexedIntChange && index == ((IndexedIntChange) o).index &&
+                Integer.compare(oldValue, ((IndexedIntChange) o).oldValue) == 0 &&
+                Integer.compare(newValue, ((IndexedIntChange) o).newValue) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * index + Integer.hashCode(oldValue)) + Integer.hashCode(newValue);
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections.util;
+
+/**
+ * Represents a primitive {@code long} value and some integer index representing it. Unlike {@link Indexed},
+ * neither the index nor the value are boxed.
+ */
+public class IndexedLong {
+
+    private final int index;
+    private final long value;
+
+    public static IndexedLong of(int index, long value) {
+        return new IndexedLong(index, value);
+    }
+
+    private IndexedLong(int index, long value) {
+        this.index = index;
+        this.value = value;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof IndexedLong && index == ((IndexedLong) o).index &&
+                Long.compare(value, ((IndexedLong) o).value) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * index + Long.hashCode(value);
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections.util;
+
+/**
+ * Represents an indexed primitive {@code long} value which is replaced by a new value. Unlike {@link IndexedChange},
+ * neither the index nor the values are boxed.
+ */
+public class IndexedLongChange {
+
+    private final int index;
+    private final long oldValue;
+    private final long newValue;
+
+    public static IndexedLongChange of(int index, long oldValue, long newValue) {
+        return new IndexedLongChange(index, oldValue, newValue);
+    }
+
+    private IndexedLongChange(int index, long oldValue, long newValue) {
+        this.index = index;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public long getOldValue() {
+        return oldValue;
+    }
+
+    public long getNewValue() {
+        return newValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof IndexedLongChange && index == ((IndexedLongChange) o).index &&
+                Long.compare(oldValue, ((IndexedLongChange) o).oldValue) == 0 &&
+                Long.compare(newValue, ((IndexedLongChange) o).newValue) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * index + Long.hashCode(oldValue)) + Long.hashCode(newValue);
+    }
+
+}
@@ -0,0 +1,312 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections.util;
+
+import java.util.*;
+
+/**
+ * Describes all changes made to a list by a single operation, as a sequence of ranges of contiguous indices. The
+ * ranges must be applied in order, as the indices of a range refer to the list after all preceding ranges have been
+ * applied to it.
+ *
+ * @param <E> The type of elements stored in the list.
+ */
+public class ListChange<E> implements Iterable<ListChange.Range<E>> {
+
+    private final List<Range<E>> ranges;
+
+    private ListChange(List<Range<E>> ranges) {
+        this.ranges = Collections.unmodifiableList(ranges);
+    }
+
+    /**
+     * Returns the ranges of this change, in the order in which they must be applied.
+     *
+     * @return A read-only list of {@link Range} objects.
+     */
+    public List<Range<E>> getRanges() {
+        return ranges;
+    }
+
+    @Override
+    public Iterator<Range<E>> iterator() {
+        return ranges.iterator();
+    }
+
+    /**
+     * A range of contiguous indices in the list which were changed. A range represents either added elements, removed
+     * elements, elements replaced by other elements, or elements which were reordered.
+     *
+     * @param <E> The type of elements stored in the list.
+     */
+    public static class Range<E> {
+
+        private final int from;
+        private final List<E> removed;
+        private final List<E> added;
+        private final int[] permutation;
+
+        private Range(int from, List<E> removed, List<E> added, int[] permutation) {
+            this.from = from;
+            this.removed = removed;
+            this.added = added;
+            this.permutation = permutation;
+        }
+
+        /**
+         * Returns the first index of the range.
+         *
+         * @return The index.
+         */
+        public int getFrom() {
+            return from;
+        }
+
+        /**
+         * Returns the index after the last index of the range, in the list after the range was applied. For a range
+         * of removed elements, this is equal to {@link #getFrom()}.
+         *
+         * @return The index.
+         */
+        public int getTo() {
+            return from + (wasPermuted() ? permutation.length : added.size());
+        }
+
+        /**
+         * Checks whether elements were added in this range, either by inserting or by replacing them.
+         *
+         * @return True if elements were added.
+         */
+        public boolean wasAdded() {
+            return !added.isEmpty();
+        }
+
+        /**
+         * Checks whether elements were removed in this range, either by deleting or by replacing them.
+         *
+         * @return True if elements were removed.
+         */
+        public boolean wasRemoved() {
+            return !removed.isEmpty();
+        }
+
+        /**
+         * Checks whether the elements which were removed in this range were replaced by the added elements.
+         *
+         * @return True if elements were replaced.
+         */
+        public boolean wasReplaced() {
+            return wasAdded() && wasRemoved();
+        }
+
+        /**
+         * Checks whether the elements in this range were only reordered.
+         *
+         * @return True if the elements were reordered.
+         */
+        public boolean wasPermuted() {
+            return permutation != null;
+        }
+
+        /**
+         * Returns the elements which were removed at {@link #getFrom()}.
+         *
+         * @return A read-only list of the removed elements.
+         */
+        public List<E> getRemoved() {
+            return Collections.unmodifiableList(removed);
+        }
+
+        /**
+         * Returns the elements which were added from {@link #getFrom()} up to {@link #getTo()}.
+         *
+         * @return A read-only list of the added elements.
+         */
+        public List<E> getAdded() {
+            return Collections.unmodifiableList(added);
+        }
+
+        /**
+         * Returns the new index of the element which was located at the given index before the elements were
+         * reordered.
+         *
+         * @param index The old index of an element within this range.
+         * @return The new index of the element.
+         */
+        public int getPermutation(int index) {
+            if (!wasPermuted()) {
+                throw new IllegalStateException("The range was not permuted");
+            }
+            return permutation[index - from];
+        }
+
+    }
+
+    /**
+     * Collects the individual changes made to a list and merges those which affect contiguous indices into a single
+     * range.
+     *
+     * @param <E> The type of elements stored in the list.
+     */
+    public static class Builder<E> {
+
+        private final List<Range<E>> ranges = new ArrayList<>();
+
+        private Range<E> last() {
+            return ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+        }
+
+        /**
+         * Records the insertion of an element.
+         *
+         * @param index The index at which the element was inserted.
+         * @param element The inserted element.
+         * @return The builder.
+         */
+        public Builder<E> add(int index, E element) {
+            Range<E> last = last();
+            if (last != null && !last.wasRemoved() && !last.wasPermuted() &&
+                    index >= last.getFrom() && index <= last.getTo()) {
+                last.added.add(index - last.getFrom(), element);
+            } else {
+                List<E> added = new ArrayList<>();
+                added.add(element);
+                ranges.add(new Range<>(index, Collections.emptyList(), added, null));
+            }
+            return this;
+        }
+
+        /**
+         * Records the removal of an element.
+         *
+         * @param index The index from which the element was removed.
+         * @param element The removed element.
+         * @return The builder.
+         */
+        public Builder<E> remove(int index, E element) {
+            Range<E> last = last();
+            if (last != null && !last.wasAdded() && !last.wasPermuted() && index == last.getFrom()) {
+                last.removed.add(element);
+            } else if (last != null && !last.wasAdded() && !last.wasPermuted() && index == last.getFrom() - 1) {
+                last.removed.add(0, element);
+                ranges.set(ranges.size() - 1, new Range<>(index, last.removed, last.added, null));
+            } else {
+                List<E> removed = new ArrayList<>();
+                removed.add(element);
+                ranges.add(new Range<>(index, removed, Collections.emptyList(), null));
+            }
+            return this;
+        }
+
+        /**
+         * Records the removal of a range of contiguous elements.
+         *
+         * @param index The index from which the elements were removed.
+         * @param elements The removed elements.
+         * @return The builder.
+         */
+        public Builder<E> remove(int index, List<? extends E> elements) {
+            if (!elements.isEmpty()) {
+                ranges.add(new Range<>(index, new ArrayList<>(elements), Collections.emptyList(), null));
+            }
+            return this;
+        }
+
+        /**
+         * Records the replacement of an element.
+         *
+         * @param index The index of the replaced element.
+         * @param oldElement The element which was replaced.
+         * @param newElement The element which replaced it.
+         * @return The builder.
+         */
+        public Builder<E> replace(int index, E oldElement, E newElement) {
+            Range<E> last = last();
+            if (last != null && last.wasReplaced() && last.removed.size() == last.added.size() &&
+                    index == last.getTo()) {
+                last.removed.add(oldElement);
+                last.added.add(newElement);
+            } else {
+                List<E> removed = new ArrayList<>();
+                removed.add(oldElement);
+                List<E> added = new ArrayList<>();
+                added.add(newElement);
+                ranges.add(new Range<>(index, removed, added, null));
+            }
+            return this;
+        }
+
+        /**
+         * Records the replacement of a range of contiguous elements by another range of elements.
+         *
+         * @param index The index of the first replaced element.
+         * @param oldElements The elements which were replaced.
+         * @param newElements The elements which replaced them.
+         * @return The builder.
+         */
+        public Builder<E> replace(int index, List<? extends E> oldElements, List<? extends E> newElements) {
+            if (!oldElements.isEmpty() || !newElements.isEmpty()) {
+                ranges.add(new Range<>(index, new ArrayList<>(oldElements), new ArrayList<>(newElements), null));
+            }
+            return this;
+        }
+
+        /**
+         * Records an element being moved to a new index, shifting the elements in between.
+         *
+         * @param oldIndex The old index of the element.
+         * @param newIndex The new index of the element.
+         * @return The builder.
+         */
+        public Builder<E> move(int oldIndex, int newIndex) {
+            int from = Math.min(oldIndex, newIndex);
+            int[] permutation = new int[Math.abs(oldIndex - newIndex) + 1];
+            for (int i = 0; i < permutation.length; i++) {
+                int index = from + i;
+                if (index == oldIndex) {
+                    permutation[i] = newIndex;
+                } else {
+                    permutation[i] = oldIndex < newIndex ? index - 1 : index + 1;
+                }
+            }
+            ranges.add(new Range<>(from, Collections.emptyList(), Collections.emptyList(), permutation));
+            return this;
+        }
+
+        /**
+         * Checks whether any changes were recorded.
+         *
+         * @return True if no changes were recorded.
+         */
+        public boolean isEmpty() {
+            return ranges.isEmpty();
+        }
+
+        /**
+         * Creates the {@link ListChange} object containing all recorded changes.
+         *
+         * @return The new {@link ListChange} object.
+         */
+        public ListChange<E> build() {
+            return new ListChange<>(new ArrayList<>(ranges));
+        }
+
+    }
+
+}
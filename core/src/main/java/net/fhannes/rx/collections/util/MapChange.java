@@ -0,0 +1,159 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Describes all changes made to a map by a single operation, as the entries which were added to, removed from or
+ * updated in the map.
+ *
+ * @param <K> The type of keys stored in the map.
+ * @param <V> The type of values stored in the map.
+ */
+public class MapChange<K, V> {
+
+    private final Map<K, V> added;
+    private final Map<K, V> removed;
+    private final Map<K, EntryChange<K, V>> updated;
+
+    private MapChange(Map<K, V> added, Map<K, V> removed, Map<K, EntryChange<K, V>> updated) {
+        this.added = Collections.unmodifiableMap(added);
+        this.removed = Collections.unmodifiableMap(removed);
+        this.updated = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * Returns the entries which were added to the map.
+     *
+     * @return A read-only map of the added entries.
+     */
+    public Map<K, V> getAdded() {
+        return added;
+    }
+
+    /**
+     * Returns the entries which were removed from the map, with the values they had before the change.
+     *
+     * @return A read-only map of the removed entries.
+     */
+    public Map<K, V> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Returns the entries of which the value was updated, mapped on an {@link EntryChange} containing the value before
+     * and after the change.
+     *
+     * @return A read-only map of the updated entries.
+     */
+    public Map<K, EntryChange<K, V>> getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Collects the individual changes made to a map. Consecutive changes to the same key are merged, such that each
+     * key occurs at most once in the resulting {@link MapChange}.
+     *
+     * @param <K> The type of keys stored in the map.
+     * @param <V> The type of values stored in the map.
+     */
+    public static class Builder<K, V> {
+
+        private final Map<K, V> added = new LinkedHashMap<>();
+        private final Map<K, V> removed = new LinkedHashMap<>();
+        private final Map<K, EntryChange<K, V>> updated = new LinkedHashMap<>();
+
+        /**
+         * Records the addition of an entry.
+         *
+         * @param key The key of the entry.
+         * @param value The value of the entry.
+         * @return The builder.
+         */
+        public Builder<K, V> add(K key, V value) {
+            if (removed.containsKey(key)) {
+                updated.put(key, EntryChange.of(key, removed.remove(key), value));
+            } else {
+                added.put(key, value);
+            }
+            return this;
+        }
+
+        /**
+         * Records the update of an entry.
+         *
+         * @param key The key of the entry.
+         * @param oldValue The value of the entry before the update.
+         * @param newValue The value of the entry after the update.
+         * @return The builder.
+         */
+        public Builder<K, V> update(K key, V oldValue, V newValue) {
+            if (added.containsKey(key)) {
+                added.put(key, newValue);
+            } else if (updated.containsKey(key)) {
+                updated.put(key, EntryChange.of(key, updated.get(key).getOldEntry().getValue(), newValue));
+            } else {
+                updated.put(key, EntryChange.of(key, oldValue, newValue));
+            }
+            return this;
+        }
+
+        /**
+         * Records the removal of an entry.
+         *
+         * @param key The key of the entry.
+         * @param value The value of the entry before it was removed.
+         * @return The builder.
+         */
+        public Builder<K, V> remove(K key, V value) {
+            if (added.containsKey(key)) {
+                added.remove(key);
+            } else if (updated.containsKey(key)) {
+                removed.put(key, updated.remove(key).getOldEntry().getValue());
+            } else {
+                removed.put(key, value);
+            }
+            return this;
+        }
+
+        /**
+         * Checks whether any changes were recorded.
+         *
+         * @return True if no changes were recorded, or if all recorded changes cancelled each other out.
+         */
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && updated.isEmpty();
+        }
+
+        /**
+         * Creates the {@link MapChange} object containing all recorded changes.
+         *
+         * @return The new {@link MapChange} object.
+         */
+        public MapChange<K, V> build() {
+            return new MapChange<>(new LinkedHashMap<>(added), new LinkedHashMap<>(removed),
+                    new LinkedHashMap<>(updated));
+        }
+
+    }
+
+}
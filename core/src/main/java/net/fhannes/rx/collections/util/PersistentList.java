@@ -0,0 +1,283 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections.util;
+
+import java.util.*;
+
+/**
+ * An immutable list which shares its structure with the lists it was derived from. The elements are stored in a
+ * balanced binary tree, so that replacing, inserting or removing an element at a given index creates a new list in
+ * O(log n) time and memory, while leaving the original list unchanged.
+ *
+ * @param <E> The type of elements stored in the list.
+ */
+public final class PersistentList<E> extends AbstractList<E> {
+
+    private static final PersistentList<?> EMPTY = new PersistentList<>(null);
+
+    private final Node<E> root;
+
+    /**
+     * Returns an empty list.
+     *
+     * @param <E> The type of elements stored in the list.
+     * @return The empty {@link PersistentList} object.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    /**
+     * Creates a list containing the elements of the given collection, in the order they are returned by its iterator.
+     * This takes O(n) time.
+     *
+     * @param c The given collection.
+     * @param <E> The type of elements stored in the list.
+     * @return The new {@link PersistentList} object.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> of(Collection<? extends E> c) {
+        if (c instanceof PersistentList) {
+            return (PersistentList<E>) c;
+        }
+        Object[] elements = c.toArray();
+        return elements.length == 0 ? empty() : new PersistentList<>(build(elements, 0, elements.length));
+    }
+
+    private PersistentList(Node<E> root) {
+        this.root = root;
+    }
+
+    private static <E> PersistentList<E> wrap(Node<E> root) {
+        return root == null ? empty() : new PersistentList<>(root);
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public E get(int index) {
+        checkIndex(index, size());
+        Node<E> n = root;
+        while (true) {
+            int leftSize = size(n.left);
+            if (index < leftSize) {
+                n = n.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                n = n.right;
+            } else {
+                return n.value;
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of this list in which the element at the given index is replaced by the given element.
+     *
+     * @param index The index of the element to replace.
+     * @param element The new element.
+     * @return The new {@link PersistentList} object.
+     */
+    public PersistentList<E> with(int index, E element) {
+        checkIndex(index, size());
+        return new PersistentList<>(set(root, index, element));
+    }
+
+    /**
+     * Returns a copy of this list with the given element appended to it.
+     *
+     * @param element The element to append.
+     * @return The new {@link PersistentList} object.
+     */
+    public PersistentList<E> plus(E element) {
+        return new PersistentList<>(insert(root, size(), element));
+    }
+
+    /**
+     * Returns a copy of this list in which the given element is inserted at the given index. The elements at and
+     * after the given index are shifted to the right.
+     *
+     * @param index The index at which to insert the element.
+     * @param element The element to insert.
+     * @return The new {@link PersistentList} object.
+     */
+    public PersistentList<E> plus(int index, E element) {
+        checkIndex(index, size() + 1);
+        return new PersistentList<>(insert(root, index, element));
+    }
+
+    /**
+     * Returns a copy of this list from which the element at the given index is removed. The elements after the given
+     * index are shifted to the left.
+     *
+     * @param index The index of the element to remove.
+     * @return The new {@link PersistentList} object.
+     */
+    public PersistentList<E> minus(int index) {
+        checkIndex(index, size());
+        return wrap(delete(root, index));
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private final Deque<Node<E>> path = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node<E> n) {
+                while (n != null) {
+                    path.push(n);
+                    n = n.left;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<E> n = path.pop();
+                pushLeft(n.right);
+                return n.value;
+            }
+
+        };
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+
+    /**
+     * A node of the balanced tree. Nodes are never modified once they are created, which allows them to be shared
+     * between lists.
+     */
+    private static final class Node<E> {
+
+        private final Node<E> left;
+        private final E value;
+        private final Node<E> right;
+        private final int size;
+        private final int height;
+
+        private Node(Node<E> left, E value, Node<E> right) {
+            this.left = left;
+            this.value = value;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+
+    }
+
+    private static int size(Node<?> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static int height(Node<?> n) {
+        return n == null ? 0 : n.height;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E> build(Object[] elements, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        return new Node<>(build(elements, from, mid), (E) elements[mid], build(elements, mid + 1, to));
+    }
+
+    /**
+     * Creates a node from two subtrees of which the heights differ by at most two, rotating it if required to restore
+     * the balance of the tree.
+     */
+    private static <E> Node<E> balance(Node<E> l, E v, Node<E> r) {
+        int hl = height(l);
+        int hr = height(r);
+        if (hl > hr + 1) {
+            if (height(l.left) >= height(l.right)) {
+                return new Node<>(l.left, l.value, new Node<>(l.right, v, r));
+            }
+            return new Node<>(new Node<>(l.left, l.value, l.right.left), l.right.value,
+                    new Node<>(l.right.right, v, r));
+        } else if (hr > hl + 1) {
+            if (height(r.right) >= height(r.left)) {
+                return new Node<>(new Node<>(l, v, r.left), r.value, r.right);
+            }
+            return new Node<>(new Node<>(l, v, r.left.left), r.left.value,
+                    new Node<>(r.left.right, r.value, r.right));
+        }
+        return new Node<>(l, v, r);
+    }
+
+    private static <E> Node<E> set(Node<E> n, int index, E element) {
+        int leftSize = size(n.left);
+        if (index < leftSize) {
+            return new Node<>(set(n.left, index, element), n.value, n.right);
+        } else if (index > leftSize) {
+            return new Node<>(n.left, n.value, set(n.right, index - leftSize - 1, element));
+        }
+        return new Node<>(n.left, element, n.right);
+    }
+
+    private static <E> Node<E> insert(Node<E> n, int index, E element) {
+        if (n == null) {
+            return new Node<>(null, element, null);
+        }
+        int leftSize = size(n.left);
+        if (index <= leftSize) {
+            return balance(insert(n.left, index, element), n.value, n.right);
+        }
+        return balance(n.left, n.value, insert(n.right, index - leftSize - 1, element));
+    }
+
+    private static <E> Node<E> delete(Node<E> n, int index) {
+        int leftSize = size(n.left);
+        if (index < leftSize) {
+            return balance(delete(n.left, index), n.value, n.right);
+        } else if (index > leftSize) {
+            return balance(n.left, n.value, delete(n.right, index - leftSize - 1));
+        } else if (n.left == null) {
+            return n.right;
+        } else if (n.right == null) {
+            return n.left;
+        }
+        Node<E> first = n.right;
+        while (first.left != null) {
+            first = first.left;
+        }
+        return balance(n.left, first.value, delete(n.right, 0));
+    }
+
+}
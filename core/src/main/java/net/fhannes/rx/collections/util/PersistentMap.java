@@ -0,0 +1,477 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections.util;
+
+import java.util.*;
+
+/**
+ * An immutable map which shares its structure with the maps it was derived from. The entries are stored in a hash
+ * array mapped trie, which branches on five bits of the hash code of a key at each level, so that adding, replacing or
+ * removing an entry creates a new map in O(log n) time and memory, while leaving the original map unchanged. Keys
+ * with equal hash codes are stored in a single node.
+ *
+ * @param <K> The type of keys stored in the map.
+ * @param <V> The type of values stored in the map.
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Object[] NO_SLOTS = new Object[0];
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(new BitmapNode(0, NO_SLOTS), 0);
+
+    private final Node root;
+    private final int size;
+    private Set<Entry<K, V>> entries;
+
+    /**
+     * Returns an empty map.
+     *
+     * @param <K> The type of keys stored in the map.
+     * @param <V> The type of values stored in the map.
+     * @return The empty {@link PersistentMap} object.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Creates a map containing the entries of the given map. This takes O(n log n) time.
+     *
+     * @param map The given map.
+     * @param <K> The type of keys stored in the map.
+     * @param <V> The type of values stored in the map.
+     * @return The new {@link PersistentMap} object.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> of(Map<? extends K, ? extends V> map) {
+        if (map instanceof PersistentMap) {
+            return (PersistentMap<K, V>) map;
+        }
+        PersistentMap<K, V> result = empty();
+        for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            result = result.plus(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    private static int hash(Object key) {
+        int h = Objects.hashCode(key);
+        // Spreads the higher bits, which are otherwise only used at the deepest levels of the trie
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return root.find(hash(key), key, 0) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        Leaf leaf = root.find(hash(key), key, 0);
+        return leaf == null ? null : value(leaf);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(Leaf leaf) {
+        return (V) leaf.value;
+    }
+
+    /**
+     * Returns a copy of this map in which the given key is mapped to the given value.
+     *
+     * @param key The given key.
+     * @param value The given value.
+     * @return The new {@link PersistentMap} object, or this map if it already maps the key to the same value.
+     */
+    public PersistentMap<K, V> plus(K key, V value) {
+        Leaf leaf = new Leaf(hash(key), key, value);
+        Node result = root.plus(leaf, 0);
+        if (result == root) {
+            return this;
+        }
+        return new PersistentMap<>(result, root.find(leaf.hash, key, 0) == null ? size + 1 : size);
+    }
+
+    /**
+     * Returns a copy of this map from which the entry of the given key is removed.
+     *
+     * @param key The given key.
+     * @return The new {@link PersistentMap} object, or this map if it does not contain the key.
+     */
+    public PersistentMap<K, V> minus(Object key) {
+        Node result = root.minus(hash(key), key, 0);
+        if (result == root) {
+            return this;
+        }
+        return result == null ? empty() : new PersistentMap<>(result, size - 1);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entries == null) {
+            entries = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator<>(root);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entries;
+    }
+
+    /**
+     * Iterates over the leaves of the trie, depth first.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+
+        private final Deque<Object[]> slots = new ArrayDeque<>();
+        private final Deque<Integer> positions = new ArrayDeque<>();
+        private Leaf next;
+
+        private EntryIterator(Node root) {
+            slots.push(root.slots());
+            positions.push(0);
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && !slots.isEmpty()) {
+                Object[] current = slots.peek();
+                int position = positions.pop();
+                if (position == current.length) {
+                    slots.pop();
+                    continue;
+                }
+                positions.push(position + 1);
+                Object slot = current[position];
+                if (slot instanceof Leaf) {
+                    next = (Leaf) slot;
+                } else {
+                    slots.push(((Node) slot).slots());
+                    positions.push(0);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Leaf leaf = next;
+            advance();
+            return (Entry<K, V>) (Entry<?, ?>) leaf;
+        }
+
+    }
+
+    /**
+     * An entry of the map, along with the hash code of its key.
+     */
+    private static final class Leaf implements Entry<Object, Object> {
+
+        private final int hash;
+        private final Object key;
+        private final Object value;
+
+        private Leaf(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+
+        private boolean matches(int hash, Object key) {
+            return this.hash == hash && Objects.equals(this.key, key);
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            return Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+
+    }
+
+    /**
+     * A node of the trie. Nodes are never modified once they are created, which allows them to be shared between maps.
+     * Their slots contain either leaves or other nodes.
+     */
+    private abstract static class Node {
+
+        abstract Object[] slots();
+
+        abstract Leaf find(int hash, Object key, int shift);
+
+        /**
+         * Returns a node to which the given leaf is added, replacing the leaf of an equal key, or this node if it
+         * already contains the same entry.
+         */
+        abstract Node plus(Leaf leaf, int shift);
+
+        /**
+         * Returns a node from which the leaf of the given key is removed, this node if it does not contain the key, or
+         * null if the node would become empty.
+         */
+        abstract Node minus(int hash, Object key, int shift);
+
+        /**
+         * Returns the only slot of this node if it is a leaf, so the parent can store it in place of this node.
+         */
+        Leaf single() {
+            Object[] slots = slots();
+            return slots.length == 1 && slots[0] instanceof Leaf ? (Leaf) slots[0] : null;
+        }
+
+    }
+
+    /**
+     * A node which stores a slot for each value of five bits of the hash code which occurs among its keys. The bitmap
+     * indicates which values occur, and the slots are stored in the order of these values.
+     */
+    private static final class BitmapNode extends Node {
+
+        private final int bitmap;
+        private final Object[] slots;
+
+        private BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object[] slots() {
+            return slots;
+        }
+
+        @Override
+        Leaf find(int hash, Object key, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[index(bit)];
+            if (slot instanceof Leaf) {
+                return ((Leaf) slot).matches(hash, key) ? (Leaf) slot : null;
+            }
+            return ((Node) slot).find(hash, key, shift + BITS);
+        }
+
+        @Override
+        Node plus(Leaf leaf, int shift) {
+            int bit = 1 << ((leaf.hash >>> shift) & MASK);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, copy, 0, index);
+                copy[index] = leaf;
+                System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object slot = slots[index];
+            Object replacement;
+            if (slot instanceof Leaf) {
+                Leaf old = (Leaf) slot;
+                if (old.matches(leaf.hash, leaf.key)) {
+                    if (old.value == leaf.value) {
+                        return this;
+                    }
+                    replacement = leaf;
+                } else if (old.hash == leaf.hash) {
+                    replacement = new CollisionNode(leaf.hash, new Object[]{old, leaf});
+                } else {
+                    replacement = new BitmapNode(0, NO_SLOTS).plus(old, shift + BITS).plus(leaf, shift + BITS);
+                }
+            } else {
+                replacement = ((Node) slot).plus(leaf, shift + BITS);
+                if (replacement == slot) {
+                    return this;
+                }
+            }
+            Object[] copy = slots.clone();
+            copy[index] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        Node minus(int hash, Object key, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Object slot = slots[index];
+            Object replacement;
+            if (slot instanceof Leaf) {
+                if (!((Leaf) slot).matches(hash, key)) {
+                    return this;
+                }
+                replacement = null;
+            } else {
+                Node child = ((Node) slot).minus(hash, key, shift + BITS);
+                if (child == slot) {
+                    return this;
+                }
+                replacement = child == null ? null : child.single() != null ? child.single() : child;
+            }
+            if (replacement != null) {
+                Object[] copy = slots.clone();
+                copy[index] = replacement;
+                return new BitmapNode(bitmap, copy);
+            }
+            if (slots.length == 1) {
+                return null;
+            }
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            System.arraycopy(slots, index + 1, copy, index, slots.length - index - 1);
+            return new BitmapNode(bitmap & ~bit, copy);
+        }
+
+    }
+
+    /**
+     * A node which stores the leaves of keys which have the same hash code.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] leaves;
+
+        private CollisionNode(int hash, Object[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (Objects.equals(((Leaf) leaves[i]).key, key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object[] slots() {
+            return leaves;
+        }
+
+        @Override
+        Leaf find(int hash, Object key, int shift) {
+            if (hash != this.hash) {
+                return null;
+            }
+            int index = indexOf(key);
+            return index == -1 ? null : (Leaf) leaves[index];
+        }
+
+        @Override
+        Node plus(Leaf leaf, int shift) {
+            if (leaf.hash != hash) {
+                // The leaf belongs next to this node, in a node which branches on the bits of this level
+                BitmapNode node = new BitmapNode(1 << ((hash >>> shift) & MASK), new Object[]{this});
+                return node.plus(leaf, shift);
+            }
+            int index = indexOf(leaf.key);
+            if (index == -1) {
+                Object[] copy = Arrays.copyOf(leaves, leaves.length + 1);
+                copy[leaves.length] = leaf;
+                return new CollisionNode(hash, copy);
+            } else if (((Leaf) leaves[index]).value == leaf.value) {
+                return this;
+            }
+            Object[] copy = leaves.clone();
+            copy[index] = leaf;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Node minus(int hash, Object key, int shift) {
+            int index = hash == this.hash ? indexOf(key) : -1;
+            if (index == -1) {
+                return this;
+            } else if (leaves.length == 1) {
+                return null;
+            }
+            Object[] copy = new Object[leaves.length - 1];
+            System.arraycopy(leaves, 0, copy, 0, index);
+            System.arraycopy(leaves, index + 1, copy, index, leaves.length - index - 1);
+            return new CollisionNode(hash, copy);
+        }
+
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections.util;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Describes all changes made to a set by a single operation, as the elements which were added to and removed from the
+ * set.
+ *
+ * @param <E> The type of elements stored in the set.
+ */
+public class SetChange<E> {
+
+    private final Set<E> added;
+    private final Set<E> removed;
+
+    private SetChange(Set<E> added, Set<E> removed) {
+        this.added = Collections.unmodifiableSet(added);
+        this.removed = Collections.unmodifiableSet(removed);
+    }
+
+    /**
+     * Returns the elements which were added to the set.
+     *
+     * @return A read-only set of the added elements.
+     */
+    public Set<E> getAdded() {
+        return added;
+    }
+
+    /**
+     * Returns the elements which were removed from the set.
+     *
+     * @return A read-only set of the removed elements.
+     */
+    public Set<E> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Collects the individual changes made to a set. An element which is removed after it was added, or the other way
+     * around, cancels out the earlier change.
+     *
+     * @param <E> The type of elements stored in the set.
+     */
+    public static class Builder<E> {
+
+        private final Set<E> added = new LinkedHashSet<>();
+        private final Set<E> removed = new LinkedHashSet<>();
+
+        /**
+         * Records the addition of an element.
+         *
+         * @param element The added element.
+         * @return The builder.
+         */
+        public Builder<E> add(E element) {
+            if (!removed.remove(element)) {
+                added.add(element);
+            }
+            return this;
+        }
+
+        /**
+         * Records the removal of an element.
+         *
+         * @param element The removed element.
+         * @return The builder.
+         */
+        public Builder<E> remove(E element) {
+            if (!added.remove(element)) {
+                removed.add(element);
+            }
+            return this;
+        }
+
+        /**
+         * Checks whether any changes were recorded.
+         *
+         * @return True if no changes were recorded, or if all recorded changes cancelled each other out.
+         */
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+
+        /**
+         * Creates the {@link SetChange} object containing all recorded changes.
+         *
+         * @return The new {@link SetChange} object.
+         */
+        public SetChange<E> build() {
+            return new SetChange<>(new LinkedHashSet<>(added), new LinkedHashSet<>(removed));
+        }
+
+    }
+
+}
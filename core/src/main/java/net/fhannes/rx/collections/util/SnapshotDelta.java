@@ -0,0 +1,72 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections.util;
+
+/**
+ * Describes a single change made to a reactive collection, as the read-only copies of the collection before and after
+ * the change, combined with an object which describes the change itself.
+ *
+ * @param <C> The type of the copies.
+ * @param <D> The type of the object which describes the change.
+ */
+public class SnapshotDelta<C, D> {
+
+    private final C previous;
+    private final C current;
+    private final D change;
+
+    public static <C, D> SnapshotDelta<C, D> of(C previous, C current, D change) {
+        return new SnapshotDelta<>(previous, current, change);
+    }
+
+    private SnapshotDelta(C previous, C current, D change) {
+        this.previous = previous;
+        this.current = current;
+        this.change = change;
+    }
+
+    /**
+     * Returns the read-only copy of the collection before the change.
+     *
+     * @return The previous copy.
+     */
+    public C getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Returns the read-only copy of the collection after the change.
+     *
+     * @return The current copy.
+     */
+    public C getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns the object which describes the change, such that applying it to {@link #getPrevious()} results in
+     * {@link #getCurrent()}.
+     *
+     * @return The change.
+     */
+    public D getChange() {
+        return change;
+    }
+
+}
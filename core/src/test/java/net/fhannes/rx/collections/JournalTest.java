@@ -0,0 +1,126 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test unit for the {@link Journal} class.
+ */
+public class JournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replayMap() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        ObservableMap<String, Integer> map = RxCollections.of(new HashMap<>());
+        try (Journal journal = Journal.open(directory)) {
+            journal.record(map, JournalCodec.strings(), JournalCodec.integers());
+            map.put("a", 1);
+            map.put("b", null);
+            map.put("c", 3);
+            map.put("a", 4);
+            map.remove("c");
+            map.merge("a", 1, Integer::sum);
+            assertEquals(6, journal.getSequence());
+        }
+
+        try (Journal journal = Journal.open(directory)) {
+            ObservableMap<String, Integer> replayed = RxCollections.of(new HashMap<>());
+            assertEquals(6, journal.replay(replayed, JournalCodec.strings(), JournalCodec.integers()));
+            assertEquals(new HashMap<>(map), new HashMap<>(replayed));
+            journal.record(replayed, JournalCodec.strings(), JournalCodec.integers());
+            replayed.clear();
+            assertEquals(7, journal.getSequence());
+        }
+    }
+
+    @Test
+    public void replayList() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        ObservableList<Integer> list = new ObservableArrayList<>();
+        Random random = new Random(1);
+        try (Journal journal = Journal.open(directory, 256)) {
+            journal.record(list, JournalCodec.integers());
+            for (int i = 0; i < 200; i++) {
+                int size = list.size();
+                int operation = size == 0 ? 0 : random.nextInt(4);
+                if (operation == 0) {
+                    list.add(random.nextInt(size + 1), i);
+                } else if (operation == 1) {
+                    list.remove(random.nextInt(size));
+                } else if (operation == 2) {
+                    list.set(random.nextInt(size), i);
+                } else {
+                    list.move(random.nextInt(size), random.nextInt(size + 1));
+                }
+            }
+        }
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.sorted().collect(Collectors.toList());
+        }
+        assertTrue(segments.size() > 1);
+
+        Path last = segments.get(segments.size() - 1);
+        long sequence;
+        try (Journal journal = Journal.open(directory, 256)) {
+            ObservableList<Integer> replayed = new ObservableArrayList<>();
+            sequence = journal.replay(replayed, JournalCodec.integers());
+            assertEquals(new ArrayList<>(list), replayed);
+        }
+        // A record which was only partially written is ignored
+        try (RandomAccessFile file = new RandomAccessFile(last.toFile(), "rw")) {
+            file.seek(8);
+            file.write(0xFF);
+        }
+        try (Journal journal = Journal.open(directory, 256)) {
+            ObservableList<Integer> replayed = new ObservableArrayList<>();
+            long replayedSequence = journal.replay(replayed, JournalCodec.integers());
+            assertEquals(replayedSequence, journal.getSequence());
+            assertTrue(replayedSequence < sequence);
+        }
+
+        try (Journal journal = Journal.open(directory.resolve("copy"), 256)) {
+            journal.record(list, JournalCodec.integers());
+            list.clear();
+            list.addAll(1, 2, 3);
+        }
+        try (Journal journal = Journal.open(directory.resolve("copy"), 256)) {
+            ObservableList<Integer> replayed = new ObservableArrayList<>();
+            journal.replay(replayed, JournalCodec.integers());
+            assertEquals(Arrays.asList(1, 2, 3), replayed);
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.observers.TestObserver;
+import net.fhannes.rx.collections.util.ListChange;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test unit for the {@link ObservableConcurrentList} class.
+ */
+public class ObservableConcurrentListTest {
+
+    @Test
+    public void replay() throws Exception {
+        ObservableConcurrentList<Integer> list = new ObservableConcurrentList<>();
+        List<Integer> replica = new ArrayList<>();
+        List<Long> sequences = new ArrayList<>();
+        list.addListener(new ListListener<Integer>() {
+
+            @Override
+            public void onAdded(int index, Integer element) {
+                replica.add(index, element);
+                sequences.add(list.getSequence());
+            }
+
+            @Override
+            public void onRemoved(int index, Integer element) {
+                assertEquals(element, replica.remove(index));
+                sequences.add(list.getSequence());
+            }
+
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 100000;
+            executor.execute(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    list.add(i % (list.size() + 1), offset + i);
+                    if (i % 3 == 0) {
+                        list.remove(0);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(new ArrayList<>(list), replica);
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(i + 1, (long) sequences.get(i));
+        }
+    }
+
+    @Test
+    public void setAll() throws Exception {
+        ObservableConcurrentList<String> list = new ObservableConcurrentList<>(Arrays.asList("a", "b", "c", "d"));
+        List<String> replica = new ArrayList<>(list);
+        list.onAdded().subscribe(i -> replica.add(i.getIndex(), i.getValue()));
+        list.onRemoved().subscribe(i -> assertEquals(i.getValue(), replica.remove(i.getIndex())));
+        list.onUpdated().subscribe(c -> replica.set(c.getNewValue().getIndex(), c.getNewValue().getValue()));
+        TestObserver<ListChange<String>> changes = list.onChanges().test();
+
+        assertTrue(list.setAll(Arrays.asList("x", "b", "d", "e", "f")));
+        assertEquals(Arrays.asList("x", "b", "d", "e", "f"), list);
+        assertEquals(replica, list);
+        changes.assertValueCount(1);
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.observers.TestObserver;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test unit for the {@link ObservableConcurrentMap} class.
+ */
+public class ObservableConcurrentMapTest {
+
+    @Test
+    public void concurrentPut() throws Exception {
+        ObservableConcurrentMap<Integer, Integer> map = new ObservableConcurrentMap<>();
+        TestObserver<MapEvent<Integer, Integer>> events = map.onEvents().test();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    map.put(i % 100, i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        events.assertValueCount(4 * 10000);
+
+        // The events of each key must form a chain from the added value to the final value
+        Map<Integer, Integer> values = new HashMap<>();
+        for (MapEvent<Integer, Integer> e : events.values()) {
+            if (e.getType() == MapEvent.Type.ADDED) {
+                assertEquals(null, values.get(e.getKey()));
+            } else {
+                assertEquals(values.get(e.getKey()), e.getOldValue());
+            }
+            values.put(e.getKey(), e.getValue());
+        }
+        assertEquals(100, values.size());
+        assertEquals(values, new HashMap<>(map));
+    }
+
+    @Test
+    public void remove() throws Exception {
+        ObservableConcurrentMap<String, Integer> map = new ObservableConcurrentMap<>();
+        TestObserver<MapEvent<String, Integer>> events = map.onEvents().test();
+        map.put("a", 1);
+
+        assertEquals(null, map.remove("b"));
+        assertFalse(map.remove("a", 2));
+        assertEquals(1, (int) map.remove("a"));
+        events.assertValueCount(2);
+        assertEquals(MapEvent.Type.REMOVED, events.values().get(1).getType());
+    }
+
+    @Test
+    public void concurrentMerge() throws Exception {
+        ObservableConcurrentMap<Integer, Integer> map = new ObservableConcurrentMap<>();
+        TestObserver<MapEvent<Integer, Integer>> events = map.onEvents().test();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    map.merge(i % 10, 1, Integer::sum);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        events.assertValueCount(4 * 10000);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(4000, (int) map.get(i));
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.observers.TestObserver;
+import net.fhannes.rx.collections.util.IndexedDouble;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test unit for the {@link ObservableDoubleList} class.
+ */
+public class ObservableDoubleListTest {
+
+    @Test
+    public void add() throws Exception {
+        ObservableDoubleList list = RxCollections.of(1.0, 2.0);
+        TestObserver<IndexedDouble> o = list.onAdded().test();
+        list.add(1, 1.5);
+
+        o.assertNoErrors();
+        o.assertValue(IndexedDouble.of(1, 1.5));
+        assertArrayEquals(new double[] { 1.0, 1.5, 2.0 }, list.toArray(), 0);
+    }
+
+    @Test
+    public void observableChanges() throws Exception {
+        ObservableDoubleList list = RxCollections.of(new double[0]);
+        TestObserver<ObservableDoubleList.Snapshot> o = list.observableChanges().test();
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        list.set(0, 5.0);
+        list.removeAt(1);
+
+        o.assertNoErrors();
+        o.assertValueCount(103);
+        for (int i = 0; i <= 100; i++) {
+            assertEquals(i, o.values().get(i).size());
+        }
+        assertEquals(0.0, o.values().get(100).get(0), 0);
+        assertEquals(5.0, o.values().get(101).get(0), 0);
+        assertArrayEquals(new double[] { 5.0, 2.0 }, o.values().get(102).stream().limit(2).toArray(), 0);
+    }
+
+    @Test
+    public void observableChangesShared() throws Exception {
+        ObservableDoubleList list = RxCollections.of(1.0, 2.0, 3.0);
+        TestObserver<ObservableDoubleList.Snapshot> o = list.observableChanges().test();
+        list.batch(l -> {
+            l.set(0, 4.0);
+            l.set(1, 5.0);
+            l.add(0, 6.0);
+        });
+        list.removeAt(3);
+        list.add(7.0);
+        list.clear();
+
+        o.assertNoErrors();
+        o.assertValueCount(5);
+        assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, o.values().get(0).toArray(), 0);
+        assertArrayEquals(new double[] { 6.0, 4.0, 5.0, 3.0 }, o.values().get(1).toArray(), 0);
+        assertArrayEquals(new double[] { 6.0, 4.0, 5.0 }, o.values().get(2).toArray(), 0);
+        assertArrayEquals(new double[] { 6.0, 4.0, 5.0, 7.0 }, o.values().get(3).toArray(), 0);
+        assertEquals(0, o.values().get(4).size());
+    }
+
+}
@@ -18,17 +18,34 @@
  */
 package net.fhannes.rx.collections;
 
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.MissingBackpressureException;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
 import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
 import net.fhannes.rx.collections.util.Indexed;
+import net.fhannes.rx.collections.util.ListChange;
+import net.fhannes.rx.collections.util.SnapshotDelta;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Test unit for the {@link ObservableList} class.
@@ -69,4 +86,454 @@ public class ObservableListTest {
         assertEquals((long) list.get(4), 4);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void observableChanges() throws Exception {
+        ObservableList<Integer> list = RxCollections.of(new ArrayList<>());
+        TestObserver<List<Integer>> o = list.observableChanges().test();
+        list.add(1);
+        list.add(0, 0);
+        list.set(1, 2);
+        list.move(0, 2);
+        list.remove(0);
+
+        o.assertNoErrors();
+        o.assertValues(Collections.emptyList(), Collections.singletonList(1), Arrays.asList(0, 1),
+                Arrays.asList(0, 2), Arrays.asList(2, 0), Collections.singletonList(0));
+    }
+
+    @Test
+    public void observableChangesLate() throws Exception {
+        ObservableList<Integer> list = RxCollections.of(new ArrayList<>());
+        list.addAll(0, 1, 2);
+        list.observableChanges().test().dispose();
+        list.remove(0);
+        list.add(3);
+        TestObserver<List<Integer>> o = list.observableChanges().test();
+        list.add(4);
+
+        o.assertNoErrors();
+        o.assertValues(Arrays.asList(1, 2, 3), Arrays.asList(1, 2, 3, 4));
+    }
+
+    @Test
+    public void onChanges() throws Exception {
+        ObservableList<Integer> list = RxCollections.of(new ArrayList<>());
+        TestObserver<ListChange<Integer>> o = list.onChanges().test();
+        list.addAll(IntStream.range(0, 1000).boxed().collect(Collectors.toList()));
+        list.retainAll(Arrays.asList(0, 1, 5));
+        list.move(0, 3);
+
+        o.assertNoErrors();
+        o.assertValueCount(3);
+
+        List<ListChange.Range<Integer>> addedRanges = o.values().get(0).getRanges();
+        assertEquals(1, addedRanges.size());
+        assertEquals(0, addedRanges.get(0).getFrom());
+        assertEquals(1000, addedRanges.get(0).getTo());
+        assertEquals(1000, addedRanges.get(0).getAdded().size());
+
+        List<ListChange.Range<Integer>> removedRanges = o.values().get(1).getRanges();
+        assertEquals(2, removedRanges.size());
+        assertEquals(2, removedRanges.get(0).getFrom());
+        assertEquals(Arrays.asList(2, 3, 4), removedRanges.get(0).getRemoved());
+        assertEquals(3, removedRanges.get(1).getFrom());
+        assertEquals(994, removedRanges.get(1).getRemoved().size());
+
+        ListChange.Range<Integer> moved = o.values().get(2).getRanges().get(0);
+        assertTrue(moved.wasPermuted());
+        assertEquals(2, moved.getPermutation(0));
+        assertEquals(0, moved.getPermutation(1));
+        assertEquals(1, moved.getPermutation(2));
+        assertEquals(Arrays.asList(1, 5, 0), list);
+    }
+
+    @Test
+    public void transaction() throws Exception {
+        ObservableList<Integer> list = RxCollections.of(new ArrayList<>());
+        TestObserver<List<Integer>> items = list.observableChanges().test();
+        TestObserver<Integer> added = list.onAdded().map(Indexed::getValue).test();
+        TestObserver<ListChange<Integer>> changes = list.onChanges().test();
+        try (Transaction outer = list.beginTransaction()) {
+            list.add(0);
+            list.batch(l -> l.addAll(1, 2));
+            list.add(3);
+
+            items.assertValueCount(1);
+            added.assertNoValues();
+            changes.assertNoValues();
+        }
+
+        items.assertValues(Collections.emptyList(), Arrays.asList(0, 1, 2, 3));
+        added.assertValues(0, 1, 2, 3);
+        changes.assertValueCount(1);
+        assertEquals(Arrays.asList(0, 1, 2, 3), changes.values().get(0).getRanges().get(0).getAdded());
+    }
+
+    @Test
+    public void listener() throws Exception {
+        ObservableList<Integer> list = RxCollections.of(new ArrayList<>());
+        List<String> events = new ArrayList<>();
+        Disposable d = list.addListener(new ListListener<Integer>() {
+
+            @Override
+            public void onAdded(int index, Integer element) {
+                events.add("+" + index + ":" + element);
+            }
+
+            @Override
+            public void onRemoved(int index, Integer element) {
+                events.add("-" + index + ":" + element);
+            }
+
+        });
+        list.onEvents().subscribe(e -> events.add(e.getType() + ":" + e.getIndex() + ":" + e.getElement()));
+        list.add(1);
+        list.remove(0);
+        d.dispose();
+        list.add(2);
+
+        assertEquals(Arrays.asList("+0:1", "ADDED:0:1", "-0:1", "REMOVED:0:1", "ADDED:0:2"), events);
+    }
+
+    @Test
+    public void clear() throws Exception {
+        ObservableList<Integer> list = RxCollections.of(new ArrayList<>());
+        list.addAll(0, 1, 2);
+        TestObserver<Indexed<Integer>> removed = list.onRemoved().test();
+        TestObserver<List<Integer>> cleared = list.onCleared().test();
+        TestObserver<List<Integer>> items = list.observableChanges().test();
+        list.clear();
+
+        removed.assertNoValues();
+        cleared.assertValue(Arrays.asList(0, 1, 2));
+        items.assertValues(Arrays.asList(0, 1, 2), Collections.emptyList());
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void removeIf() throws Exception {
+        for (List<Integer> backing : Arrays.<List<Integer>>asList(new ArrayList<>(), new LinkedList<>())) {
+            ObservableList<Integer> list = RxCollections.of(backing);
+            list.addAll(IntStream.range(0, 20).boxed().collect(Collectors.toList()));
+            List<Integer> replica = new ArrayList<>(list);
+            list.onRemoved().subscribe(i -> assertEquals(i.getValue(), replica.remove(i.getIndex())));
+            TestObserver<ListChange<Integer>> changes = list.onChanges().test();
+            list.removeIf(i -> i % 10 < 3 || i == 15);
+
+            assertEquals(Arrays.asList(3, 4, 5, 6, 7, 8, 9, 13, 14, 16, 17, 18, 19), list);
+            assertEquals(replica, list);
+            changes.assertValueCount(1);
+            assertEquals(3, changes.values().get(0).getRanges().size());
+        }
+    }
+
+    @Test
+    public void iterator() throws Exception {
+        ObservableList<Integer> list = new ObservableLinkedList<>();
+        list.addAll(IntStream.range(0, 10).boxed().collect(Collectors.toList()));
+        List<Integer> replica = new ArrayList<>(list);
+        list.onAdded().subscribe(i -> replica.add(i.getIndex(), i.getValue()));
+        list.onRemoved().subscribe(i -> assertEquals(i.getValue(), replica.remove(i.getIndex())));
+        list.onUpdatedChanged().subscribe(c -> replica.set(c.getNewValue().getIndex(), c.getNewValue().getValue()));
+
+        ListIterator<Integer> it = list.listIterator();
+        while (it.hasNext()) {
+            int value = it.next();
+            if (value % 3 == 0) {
+                it.remove();
+            } else if (value % 3 == 1) {
+                it.set(value * 10);
+            } else {
+                it.add(-value);
+            }
+        }
+        while (it.hasPrevious()) {
+            if (it.previous() < 0) {
+                it.remove();
+            }
+        }
+
+        assertEquals(Arrays.asList(10, 2, 40, 5, 70, 8), list);
+        assertEquals(replica, list);
+    }
+
+    @Test
+    public void subList() throws Exception {
+        ObservableList<Integer> list = new ObservableArrayList<>();
+        list.addAll(IntStream.range(0, 20).boxed().collect(Collectors.toList()));
+        ObservableSubList<Integer> page = list.subList(5, 10);
+        TestObserver<Indexed<Integer>> added = page.onAdded().test();
+        TestObserver<Indexed<Integer>> removed = page.onRemoved().test();
+        TestObserver<ListChange<Integer>> changes = list.onChanges().test();
+
+        list.add(0, -1);
+        list.remove(15);
+        page.add(1, 100);
+        page.remove(0);
+        added.assertValueCount(1);
+        assertEquals(1, added.values().get(0).getIndex());
+        assertEquals(100, (int) added.values().get(0).getValue());
+        removed.assertValueCount(1);
+        assertEquals(0, removed.values().get(0).getIndex());
+        assertEquals(5, (int) removed.values().get(0).getValue());
+        assertEquals(Arrays.asList(100, 6, 7, 8, 9), page);
+
+        page.subList(1, 4).clear();
+        assertEquals(Arrays.asList(100, 9), page);
+        assertEquals(2, page.size());
+        assertEquals(Arrays.asList(-1, 0, 1, 2, 3, 4, 100, 9, 10), list.subList(0, 9));
+        removed.assertValueCount(4);
+        changes.assertValueCount(5);
+        assertEquals(1, changes.values().get(4).getRanges().size());
+
+        list.batch(l -> {
+            page.remove(page.size() - 1);
+            page.add(0, 101);
+        });
+        removed.assertValueCount(5);
+        assertEquals(1, removed.values().get(4).getIndex());
+        assertEquals(9, (int) removed.values().get(4).getValue());
+        added.assertValueCount(2);
+
+        list.clear();
+        assertEquals(0, page.size());
+        removed.assertValueCount(7);
+        assertEquals(101, (int) removed.values().get(5).getValue());
+        assertEquals(100, (int) removed.values().get(6).getValue());
+        assertEquals(0, removed.values().get(6).getIndex());
+    }
+
+    @Test
+    public void subListReplay() throws Exception {
+        ObservableList<Integer> list = new ObservableArrayList<>();
+        list.addAll(IntStream.range(0, 30).boxed().collect(Collectors.toList()));
+        ObservableSubList<Integer> page = list.subList(10, 20);
+        List<Integer> replica = new ArrayList<>(page);
+        page.onAdded().subscribe(e -> replica.add(e.getIndex(), e.getValue()));
+        page.onRemoved().subscribe(e -> replica.remove(e.getIndex()));
+
+        list.add(0, -1);
+        list.remove(1);
+        list.add(11, -2);
+        list.remove(12);
+        list.add(10, -3);
+        list.add(21, -4);
+        list.remove(20);
+        assertEquals(Arrays.asList(10, -2, 12, 13, 14, 15, 16, 17, 18), page);
+        assertEquals(replica, page);
+
+        Random random = new Random(1);
+        for (int i = 0; i < 500; i++) {
+            int operation = random.nextInt(5);
+            if (operation == 0 || list.size() < 5) {
+                list.add(random.nextInt(list.size() + 1), i);
+            } else if (operation == 1) {
+                list.remove(random.nextInt(list.size()));
+            } else if (operation == 2) {
+                list.move(random.nextInt(list.size()), random.nextInt(list.size() + 1));
+            } else if (operation == 3) {
+                page.add(random.nextInt(page.size() + 1), i);
+            } else if (!page.isEmpty()) {
+                page.remove(random.nextInt(page.size()));
+            }
+            assertEquals(replica, page);
+            if (!page.isEmpty()) {
+                assertEquals(replica.get(replica.size() - 1), page.get(page.size() - 1));
+            }
+        }
+    }
+
+    @Test
+    public void index() throws Exception {
+        ObservableList<String> list = new ObservableArrayList<>();
+        list.addAll("apple", "avocado", "banana");
+        ObservableIndex<Character, String> index = list.index(s -> s.charAt(0));
+        TestObserver<Map<Character, List<String>>> changes = index.observableChanges().test();
+        assertEquals(Arrays.asList("apple", "avocado"), index.get('a'));
+
+        list.add("blueberry");
+        list.remove("apple");
+        list.set(0, "cherry");
+        list.set(0, "coconut");
+        assertEquals(Arrays.asList("banana", "blueberry"), index.get('b'));
+        assertEquals(Collections.singletonList("coconut"), index.get('c'));
+        assertFalse(index.containsKey('a'));
+        changes.assertValueCount(5);
+
+        // Equal elements are removed and replaced from the most recently added one
+        list.addAll("banana", "blueberry", "banana");
+        list.remove(3);
+        list.set(list.lastIndexOf("banana"), "berry");
+        assertEquals(Arrays.asList("banana", "blueberry", "berry", "blueberry"), index.get('b'));
+        try {
+            index.keySet().remove('b');
+            fail();
+        } catch (UnsupportedOperationException ignored) {
+        }
+
+        list.clear();
+        assertTrue(index.isEmpty());
+        index.dispose();
+        list.add("date");
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    public void setAll() throws Exception {
+        ObservableList<String> list = new ObservableArrayList<>();
+        list.addAll("a", "b", "c", "d", "e");
+        TestObserver<ListEvent<String>> events = list.onEvents().map(e -> e).test();
+        TestObserver<ListChange<String>> changes = list.onChanges().test();
+        list.setAll(Arrays.asList("a", "x", "c", "e", "f"));
+        assertEquals(Arrays.asList("a", "x", "c", "e", "f"), list);
+        events.assertValueCount(3);
+        changes.assertValueCount(1);
+        assertFalse(list.setAll(Arrays.asList("a", "x", "c", "e", "f")));
+
+        Random random = new Random(7);
+        for (List<Integer> backing : Arrays.<List<Integer>>asList(new ArrayList<>(), new LinkedList<>())) {
+            ObservableList<Integer> numbers = RxCollections.of(backing);
+            List<Integer> replica = new ArrayList<>();
+            numbers.onAdded().subscribe(i -> replica.add(i.getIndex(), i.getValue()));
+            numbers.onRemoved().subscribe(i -> assertEquals(i.getValue(), replica.remove(i.getIndex())));
+            numbers.onUpdated().subscribe(c -> replica.set(c.getNewValue().getIndex(), c.getNewValue().getValue()));
+            for (int i = 0; i < 100; i++) {
+                List<Integer> target = new ArrayList<>(numbers);
+                for (int j = random.nextInt(10); j > 0; j--) {
+                    if (!target.isEmpty() && random.nextBoolean()) {
+                        target.remove(random.nextInt(target.size()));
+                    } else {
+                        target.add(random.nextInt(target.size() + 1), random.nextInt(20));
+                    }
+                }
+                numbers.setAll(target);
+                assertEquals(target, numbers);
+                assertEquals(target, replica);
+            }
+            List<Integer> distinct = IntStream.range(0, 3 * ListDiff.MAX_EDITS).boxed().collect(Collectors.toList());
+            numbers.setAll(distinct);
+            assertEquals(distinct, replica);
+        }
+
+        // Scattered changes to a long list exceed the work of the search, so the list is updated position by position
+        ObservableList<Integer> numbers = new ObservableArrayList<>();
+        List<Integer> replica = new ArrayList<>();
+        numbers.onAdded().subscribe(i -> replica.add(i.getIndex(), i.getValue()));
+        numbers.onRemoved().subscribe(i -> assertEquals(i.getValue(), replica.remove(i.getIndex())));
+        numbers.onUpdated().subscribe(c -> replica.set(c.getNewValue().getIndex(), c.getNewValue().getValue()));
+        numbers.setAll(IntStream.range(0, 100000).boxed().collect(Collectors.toList()));
+        List<Integer> target = new ArrayList<>(numbers);
+        for (int i = 0; i < 500; i++) {
+            target.remove(random.nextInt(target.size()));
+            target.add(random.nextInt(target.size() + 1), -i);
+        }
+        numbers.setAll(target);
+        assertEquals(target, numbers);
+        assertEquals(target, replica);
+    }
+
+    @Test
+    public void onChangesFlowable() throws Exception {
+        ObservableList<Integer> list = new ObservableArrayList<>();
+        list.addAll(1, 2);
+        TestSubscriber<ListChange<Integer>> resync = list.onChanges(OverflowStrategy.RESYNC, 2).test(0);
+        TestSubscriber<ListChange<Integer>> buffer = list.onChanges(OverflowStrategy.BUFFER, 2).test(0);
+        TestSubscriber<Indexed<Integer>> drop = list.onAdded(OverflowStrategy.DROP, 2).test(0);
+        for (int i = 3; i <= 6; i++) {
+            list.add(i);
+        }
+        list.remove(0);
+
+        resync.requestMore(10);
+        resync.assertValueCount(2);
+        ListChange.Range<Integer> range = resync.values().get(0).getRanges().get(0);
+        assertEquals(Arrays.asList(1, 2), range.getRemoved());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), range.getAdded());
+        assertTrue(resync.values().get(1).getRanges().get(0).wasRemoved());
+        buffer.assertError(MissingBackpressureException.class);
+        drop.requestMore(10);
+        assertEquals(Arrays.asList(3, 4), drop.values().stream().map(Indexed::getValue).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void onUpdatedConflated() throws Exception {
+        ObservableList<Integer> list = new ObservableArrayList<>();
+        list.addAll(0, 0, 0, 0);
+        TestScheduler scheduler = new TestScheduler();
+        TestObserver<Map<Integer, Integer>> ready = list.onUpdatedConflated(scheduler).test();
+        TestObserver<Map<Integer, Integer>> window = list.onUpdatedConflated(100, TimeUnit.MILLISECONDS, scheduler).test();
+        for (int i = 1; i <= 5; i++) {
+            list.set(1, i);
+            list.set(3, -i);
+        }
+        list.remove(0);
+        list.set(0, 6);
+        list.move(2, 0);
+
+        scheduler.triggerActions();
+        Map<Integer, Integer> expected = new TreeMap<>();
+        expected.put(0, -5);
+        expected.put(1, 6);
+        ready.assertValue(expected);
+        window.assertNoValues();
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        window.assertValue(expected);
+
+        list.set(2, 7);
+        list.clear();
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        ready.assertValueCount(1);
+        window.assertValueCount(1);
+    }
+
+    @Test
+    public void observableChangesThrottled() throws Exception {
+        ObservableList<Integer> list = new ObservableArrayList<>();
+        list.add(0);
+        TestScheduler scheduler = new TestScheduler();
+        TestObserver<List<Integer>> copies = list.observableChanges(100, TimeUnit.MILLISECONDS, scheduler).test();
+        copies.assertValue(Collections.singletonList(0));
+        for (int i = 1; i <= 1000; i++) {
+            list.add(i);
+        }
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        copies.assertValueCount(2);
+        assertEquals(1001, copies.values().get(1).size());
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        copies.assertValueCount(2);
+        list.remove(0);
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        copies.assertValueCount(3);
+        assertEquals(Integer.valueOf(1), copies.values().get(2).get(0));
+
+        // The copies are taken when the list is changed, so they are not affected by later changes
+        list.clear();
+        assertEquals(1000, copies.values().get(2).size());
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        copies.assertValueCount(4);
+        assertTrue(copies.values().get(3).isEmpty());
+    }
+
+    @Test
+    public void observableDeltas() throws Exception {
+        ObservableList<Integer> list = new ObservableArrayList<>();
+        list.addAll(1, 2, 3);
+        TestObserver<SnapshotDelta<List<Integer>, ListChange<Integer>>> deltas = list.observableDeltas().test();
+        list.batch(l -> {
+            l.remove(0);
+            l.add(4);
+        });
+        list.set(0, 5);
+
+        deltas.assertValueCount(3);
+        assertEquals(Collections.emptyList(), deltas.values().get(0).getPrevious());
+        assertEquals(Arrays.asList(1, 2, 3), deltas.values().get(0).getChange().getRanges().get(0).getAdded());
+        for (int i = 1; i < 3; i++) {
+            assertTrue(deltas.values().get(i).getPrevious() == deltas.values().get(i - 1).getCurrent());
+        }
+        assertEquals(Arrays.asList(2, 3, 4), deltas.values().get(1).getCurrent());
+        assertEquals(Arrays.asList(5, 3, 4), deltas.values().get(2).getCurrent());
+        assertEquals(Collections.singletonList(2), deltas.values().get(2).getChange().getRanges().get(0).getRemoved());
+    }
+
+}
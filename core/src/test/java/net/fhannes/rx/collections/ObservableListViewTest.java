@@ -0,0 +1,98 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test unit for the {@link ObservableListView} class.
+ */
+public class ObservableListViewTest {
+
+    /**
+     * Creates a list which replays the events of the given view, to check whether they are consistent with the view.
+     */
+    private static <E> List<E> replay(ObservableListView<E> view) {
+        List<E> replica = new ArrayList<>(view);
+        view.onAdded().subscribe(i -> replica.add(i.getIndex(), i.getValue()));
+        view.onRemoved().subscribe(i -> assertEquals(i.getValue(), replica.remove(i.getIndex())));
+        view.onUpdated().subscribe(c -> replica.set(c.getNewValue().getIndex(), c.getNewValue().getValue()));
+        view.onMoved().subscribe(c -> replica.add(c.getNewValue().getIndex(), replica.remove(c.getOldValue().getIndex())));
+        view.onCleared().subscribe(l -> replica.clear());
+        return replica;
+    }
+
+    @Test
+    public void views() throws Exception {
+        ObservableList<Integer> list = new ObservableArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            list.add(random.nextInt(100));
+        }
+        ObservableListView<Integer> filtered = list.filtered(i -> i % 3 == 0);
+        ObservableListView<String> mapped = filtered.mapped(i -> "#" + i);
+        ObservableListView<Integer> sorted = list.sorted(Comparator.naturalOrder());
+        List<Integer> filteredReplica = replay(filtered);
+        List<String> mappedReplica = replay(mapped);
+        List<Integer> sortedReplica = replay(sorted);
+
+        for (int i = 0; i < 2000; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 || list.isEmpty()) {
+                list.add(random.nextInt(list.size() + 1), random.nextInt(100));
+            } else if (op == 1) {
+                list.remove(random.nextInt(list.size()));
+            } else if (op == 2) {
+                list.set(random.nextInt(list.size()), random.nextInt(100));
+            } else {
+                list.move(random.nextInt(list.size()), random.nextInt(list.size() + 1));
+            }
+            if (i == 1000) {
+                list.clear();
+            }
+        }
+
+        List<Integer> expectedFiltered = list.stream().filter(i -> i % 3 == 0).collect(Collectors.toList());
+        List<Integer> expectedSorted = list.stream().sorted().collect(Collectors.toList());
+        assertEquals(expectedFiltered, new ArrayList<>(filtered));
+        assertEquals(expectedFiltered, filteredReplica);
+        assertEquals(expectedFiltered.stream().map(i -> "#" + i).collect(Collectors.toList()), mappedReplica);
+        assertEquals(expectedSorted, new ArrayList<>(sorted));
+        assertEquals(expectedSorted, sortedReplica);
+
+        filtered.dispose();
+        list.add(0, 3);
+        assertEquals(expectedFiltered, new ArrayList<>(filtered));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnly() throws Exception {
+        ObservableList<Integer> list = new ObservableArrayList<>();
+        list.mapped(i -> i + 1).add(1);
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import net.fhannes.rx.collections.util.EntryChange;
+import net.fhannes.rx.collections.util.MapChange;
+import net.fhannes.rx.collections.util.SnapshotDelta;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test unit for the {@link ObservableMap} class.
+ */
+public class ObservableMapTest {
+
+    @Test
+    public void transaction() throws Exception {
+        ObservableMap<String, Integer> map = RxCollections.of(new HashMap<>());
+        map.put("a", 1);
+        map.put("b", 2);
+        TestObserver<Map<String, Integer>> items = map.observableChanges().test();
+        TestObserver<MapChange<String, Integer>> changes = map.onChanges().test();
+        map.batch(m -> {
+            m.put("a", 3);
+            m.put("a", 4);
+            m.remove("b");
+            m.put("c", 5);
+            m.remove("c");
+        });
+
+        items.assertValueCount(2);
+        assertEquals(Collections.singletonMap("a", 4), items.values().get(1));
+        changes.assertValueCount(1);
+        MapChange<String, Integer> change = changes.values().get(0);
+        assertEquals(Collections.emptyMap(), change.getAdded());
+        assertEquals(Collections.singletonMap("b", 2), change.getRemoved());
+        assertEquals(1, (int) change.getUpdated().get("a").getOldEntry().getValue());
+        assertEquals(4, (int) change.getUpdated().get("a").getNewEntry().getValue());
+    }
+
+    @Test
+    public void compute() throws Exception {
+        ObservableMap<String, Integer> map = RxCollections.of(new HashMap<>());
+        Map<String, Integer> replica = new HashMap<>();
+        map.onEvents().subscribe(e -> {
+            if (e.getType() == MapEvent.Type.REMOVED) {
+                assertEquals(e.getValue(), replica.remove(e.getKey()));
+            } else {
+                assertEquals(e.getOldValue(), replica.put(e.getKey(), e.getValue()));
+            }
+        });
+
+        assertEquals(null, map.put("a", 1));
+        assertEquals(1, (int) map.put("a", 2));
+        assertEquals(null, map.remove("x"));
+        assertEquals(3, (int) map.merge("a", 1, Integer::sum));
+        assertEquals(1, (int) map.merge("b", 1, Integer::sum));
+        assertEquals(5, (int) map.computeIfAbsent("c", k -> 5));
+        assertEquals(5, (int) map.computeIfAbsent("c", k -> 6));
+        assertEquals(null, map.computeIfPresent("b", (k, v) -> null));
+        assertEquals(3, (int) map.putIfAbsent("a", 7));
+        assertEquals(null, map.putIfAbsent("d", 7));
+        assertFalse(map.replace("d", 6, 8));
+        assertTrue(map.replace("d", 7, 8));
+        assertTrue(map.remove("c", 5));
+        map.replaceAll((k, v) -> v * 10);
+
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("a", 30);
+        expected.put("d", 80);
+        assertEquals(expected, new HashMap<>(map));
+        assertEquals(expected, replica);
+
+        // Computing the same value emits an update, as putting it does, while a declined operation emits nothing
+        TestObserver<Integer> updated = map.onUpdated().map(c -> c.getNewEntry().getValue()).test();
+        map.put("a", 30);
+        map.compute("a", (k, v) -> v);
+        map.computeIfAbsent("a", k -> 1);
+        map.replace("a", 1, 2);
+        updated.assertValues(30, 30);
+    }
+
+    @Test
+    public void observeKey() throws Exception {
+        ObservableMap<String, Integer> map = RxCollections.of(new HashMap<>());
+        TestObserver<EntryChange<String, Integer>> a = map.observeKey("a").test();
+        TestObserver<EntryChange<String, Integer>> b = map.observeKey("b").test();
+        map.put("a", 1);
+        map.put("c", 2);
+        map.merge("a", 1, Integer::sum);
+        map.put("b", 3);
+        b.dispose();
+        map.put("b", 4);
+        map.clear();
+
+        a.assertValueCount(3);
+        assertEquals(null, a.values().get(0).getOldEntry().getValue());
+        assertEquals(1, (int) a.values().get(1).getOldEntry().getValue());
+        assertEquals(2, (int) a.values().get(1).getNewEntry().getValue());
+        assertEquals(2, (int) a.values().get(2).getOldEntry().getValue());
+        assertEquals(null, a.values().get(2).getNewEntry().getValue());
+        b.assertValueCount(1);
+
+        TestObserver<EntryChange<String, Integer>> late = map.observeKey("b").test();
+        map.put("b", 5);
+        late.assertValueCount(1);
+    }
+
+    @Test
+    public void join() throws Exception {
+        ObservableMap<Integer, String> orders = RxCollections.of(new HashMap<>());
+        ObservableMap<Integer, Integer> executions = RxCollections.of(new HashMap<>());
+        orders.put(1, "a");
+        orders.put(2, "b");
+        executions.put(1, 10);
+        ObservableMapView<Integer, String> inner = orders.join(executions, (o, e) -> o + e);
+        ObservableMapView<Integer, String> outer = orders.leftJoin(executions, (o, e) -> o + e);
+        TestObserver<MapChange<Integer, String>> changes = inner.onChanges().test();
+        assertEquals(Collections.singletonMap(1, "a10"), new HashMap<>(inner));
+
+        executions.put(2, 20);
+        executions.put(3, 30);
+        orders.put(1, "c");
+        executions.remove(2);
+        orders.put(3, "d");
+
+        Map<Integer, String> expected = new HashMap<>();
+        expected.put(1, "c10");
+        expected.put(3, "d30");
+        assertEquals(expected, new HashMap<>(inner));
+        expected.put(2, "bnull");
+        assertEquals(expected, new HashMap<>(outer));
+        changes.assertValueCount(4);
+
+        executions.clear();
+        assertTrue(inner.isEmpty());
+        assertEquals("cnull", outer.get(1));
+        orders.remove(1);
+        assertFalse(outer.containsKey(1));
+        outer.dispose();
+        orders.put(4, "e");
+        assertFalse(outer.containsKey(4));
+    }
+
+    @Test
+    public void onPutConflated() throws Exception {
+        ObservableMap<String, Integer> prices = RxCollections.of(new HashMap<>());
+        TestScheduler scheduler = new TestScheduler();
+        TestObserver<Map<String, Integer>> conflated = prices.onPutConflated(scheduler).test();
+        for (int i = 1; i <= 100; i++) {
+            prices.put("a", i);
+            prices.put("b", -i);
+        }
+        prices.put("c", 0);
+        prices.remove("c");
+
+        scheduler.triggerActions();
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("a", 100);
+        expected.put("b", -100);
+        conflated.assertValue(expected);
+    }
+
+    @Test
+    public void observableDeltas() throws Exception {
+        ObservableMap<String, Integer> map = RxCollections.of(new HashMap<>());
+        map.put("a", 1);
+        TestObserver<SnapshotDelta<Map<String, Integer>, MapChange<String, Integer>>> deltas =
+                map.observableDeltas().test();
+        map.put("b", 2);
+        map.batch(m -> {
+            m.put("a", 3);
+            m.remove("b");
+        });
+
+        deltas.assertValueCount(3);
+        assertEquals(Collections.singletonMap("a", 1), deltas.values().get(0).getChange().getAdded());
+        assertEquals(Collections.singletonMap("a", 1), deltas.values().get(1).getPrevious());
+        SnapshotDelta<Map<String, Integer>, MapChange<String, Integer>> last = deltas.values().get(2);
+        assertEquals(2, last.getPrevious().size());
+        assertEquals(Collections.singletonMap("a", 3), last.getCurrent());
+        assertEquals(Collections.singletonMap("b", 2), last.getChange().getRemoved());
+    }
+
+}
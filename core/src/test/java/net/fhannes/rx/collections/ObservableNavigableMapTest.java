@@ -0,0 +1,92 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.TestObserver;
+import net.fhannes.rx.collections.util.EntryChange;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test unit for the {@link ObservableNavigableMap} class.
+ */
+public class ObservableNavigableMapTest {
+
+    @Test
+    public void observeRange() throws Exception {
+        ObservableNavigableMap<Integer, String> map = RxCollections.of(new TreeMap<>());
+        List<Integer> low = new ArrayList<>();
+        List<Integer> middle = new ArrayList<>();
+        Disposable lowRange = map.observeRange(0, 10).map(c -> c.getNewEntry().getKey()).subscribe(low::add);
+        map.observeRange(5, 15).map(c -> c.getNewEntry().getKey()).subscribe(middle::add);
+        TestObserver<EntryChange<Integer, String>> high = map.observeRange(20, 30).test();
+
+        for (int i = 0; i < 25; i += 2) {
+            map.put(i, "v" + i);
+        }
+        lowRange.dispose();
+        map.put(3, "x");
+        map.pollFirstEntry();
+        map.clear();
+
+        assertEquals(Arrays.asList(0, 2, 4, 6, 8), low);
+        assertEquals(Arrays.asList(6, 8, 10, 12, 14, 6, 8, 10, 12, 14), middle);
+        high.assertValueCount(6);
+        assertEquals(null, high.values().get(5).getNewEntry().getValue());
+    }
+
+    @Test
+    public void clearRange() throws Exception {
+        ObservableNavigableMap<Integer, String> map = RxCollections.of(new TreeMap<>());
+        map.put(1, "a");
+        map.put(2, "b");
+        List<String> events = new ArrayList<>();
+        map.observeRange(0, 2).subscribe(c -> events.add("range:" + c.getOldEntry().getKey()));
+        map.onChanges().subscribe(c -> events.add("changes:" + c.getRemoved().size()));
+        map.clear();
+
+        assertEquals(Arrays.asList("range:1", "changes:2"), events);
+    }
+
+    @Test
+    public void rangeIndex() throws Exception {
+        RangeIndex<Integer, String> index = new RangeIndex<>(null);
+        index.add(0, 10, "a");
+        index.add(5, 15, "b");
+        index.add(5, 15, "c");
+        assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList(index.get(7)));
+        assertEquals(Arrays.asList("b", "c"), Arrays.asList(index.get(10)));
+        assertEquals(0, index.get(15).length);
+        index.remove(5, 15, "b");
+        index.remove(0, 10, "a");
+        assertEquals(Arrays.asList("c"), Arrays.asList(index.get(5)));
+        assertEquals(0, index.get(4).length);
+        index.remove(5, 15, "c");
+        assertTrue(index.isEmpty());
+    }
+
+}
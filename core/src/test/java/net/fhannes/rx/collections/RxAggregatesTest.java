@@ -0,0 +1,106 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections;
+
+import io.reactivex.observers.TestObserver;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test unit for the {@link RxAggregates} class.
+ */
+public class RxAggregatesTest {
+
+    @Test
+    public void list() throws Exception {
+        ObservableList<Integer> list = new ObservableArrayList<>();
+        list.addAll(5, 3, 8);
+        TestObserver<Integer> count = RxAggregates.count(list, i -> i > 4).test();
+        TestObserver<Double> sum = RxAggregates.sum(list, i -> i).test();
+        TestObserver<Optional<Integer>> min = RxAggregates.min(list, Comparator.naturalOrder()).test();
+        TestObserver<Optional<Integer>> max = RxAggregates.max(list, Comparator.naturalOrder()).test();
+
+        list.add(3);
+        list.remove(Integer.valueOf(3));
+        list.set(0, 1);
+        list.move(0, 3);
+        list.clear();
+
+        count.assertValues(2, 1, 0);
+        sum.assertValues(16.0, 19.0, 16.0, 12.0, 0.0);
+        min.assertValues(Optional.of(3), Optional.of(1), Optional.empty());
+        max.assertValues(Optional.of(8), Optional.empty());
+    }
+
+    @Test
+    public void transaction() throws Exception {
+        ObservableList<Integer> list = new ObservableArrayList<>();
+        TestObserver<Double> sum = RxAggregates.sum(list, i -> i).test();
+        list.addAll(1, 2, 3);
+        list.batch(l -> {
+            l.add(4);
+            l.remove(0);
+            l.set(0, 5);
+        });
+        sum.assertValues(0.0, 6.0, 12.0);
+    }
+
+    @Test
+    public void ties() throws Exception {
+        ObservableList<String> list = new ObservableArrayList<>();
+        list.addAll("a", "b", "a");
+        TestObserver<Optional<String>> min = RxAggregates.min(list, Comparator.comparing(String::length)).test();
+        list.remove("a");
+        list.remove("a");
+        list.add("cd");
+        list.remove("b");
+        min.assertValues(Optional.of("a"), Optional.of("b"), Optional.of("cd"));
+    }
+
+    @Test
+    public void set() throws Exception {
+        ObservableSet<String> set = RxCollections.of(new HashSet<>());
+        TestObserver<Double> average = RxAggregates.average(set, String::length).test();
+        set.add("ab");
+        set.add("abcd");
+        set.remove("ab");
+        average.assertValues(Double.NaN, 2.0, 3.0, 4.0);
+    }
+
+    @Test
+    public void map() throws Exception {
+        ObservableMap<String, Double> map = RxCollections.of(new HashMap<>());
+        TestObserver<Double> sum = RxAggregates.sum(map, v -> v).test();
+        for (int i = 0; i < 1000; i++) {
+            map.put("k" + (i % 10), 0.1 * i);
+        }
+        map.clear();
+        map.put("a", 0.1);
+        assertEquals(0.1, sum.values().get(sum.valueCount() - 1), 0);
+        TestObserver<Double> late = RxAggregates.sum(map, v -> v).test();
+        late.assertValues(0.1);
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test unit for the {@link PersistentList} class.
+ */
+public class PersistentListTest {
+
+    @Test
+    public void of() throws Exception {
+        List<Integer> values = Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        PersistentList<Integer> list = PersistentList.of(values);
+
+        assertEquals(values, list);
+        assertEquals(values, new ArrayList<>(list));
+    }
+
+    @Test
+    public void persistence() throws Exception {
+        PersistentList<Integer> list = PersistentList.of(Arrays.asList(0, 1, 2));
+        PersistentList<Integer> updated = list.plus(1, 5).with(0, 7).minus(3);
+
+        assertEquals(Arrays.asList(0, 1, 2), list);
+        assertEquals(Arrays.asList(7, 5, 1), updated);
+    }
+
+    @Test
+    public void randomOperations() throws Exception {
+        Random random = new Random(42);
+        List<Integer> expected = new ArrayList<>();
+        PersistentList<Integer> list = PersistentList.empty();
+        for (int i = 0; i < 10000; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 || expected.isEmpty()) {
+                int idx = random.nextInt(expected.size() + 1);
+                expected.add(idx, i);
+                list = list.plus(idx, i);
+            } else if (op == 1) {
+                expected.add(i);
+                list = list.plus(i);
+            } else if (op == 2) {
+                int idx = random.nextInt(expected.size());
+                expected.set(idx, i);
+                list = list.with(idx, i);
+            } else {
+                int idx = random.nextInt(expected.size());
+                expected.remove(idx);
+                list = list.minus(idx);
+            }
+        }
+
+        assertEquals(expected.size(), list.size());
+        assertEquals(expected, list);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), list.get(i));
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of the RxJavaCollections library.
+ * https://github.com/FHannes/RxJavaCollections
+ *
+ * Copyright (c) 2017, Frédéric Hannes
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fhannes.rx.collections.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test unit for the {@link PersistentMap} class.
+ */
+public class PersistentMapTest {
+
+    /**
+     * A key of which all instances have the same hash code.
+     */
+    private static final class Colliding {
+
+        private final int id;
+
+        private Colliding(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Colliding && ((Colliding) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 7;
+        }
+
+    }
+
+    @Test
+    public void persistence() throws Exception {
+        Map<String, Integer> values = new HashMap<>();
+        values.put("a", 1);
+        values.put("b", 2);
+        PersistentMap<String, Integer> map = PersistentMap.of(values);
+        PersistentMap<String, Integer> updated = map.plus("c", 3).plus("a", 4).minus("b").plus(null, null);
+
+        assertEquals(values, map);
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("a", 4);
+        expected.put("c", 3);
+        expected.put(null, null);
+        assertEquals(expected, updated);
+        assertSame(updated, updated.minus("b"));
+        assertEquals(2, updated.minus(null).size());
+    }
+
+    @Test
+    public void collisions() throws Exception {
+        PersistentMap<Object, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 10; i++) {
+            map = map.plus(new Colliding(i), i).plus(i, i);
+        }
+        for (int i = 0; i < 10; i += 2) {
+            map = map.minus(new Colliding(i));
+        }
+
+        assertEquals(15, map.size());
+        assertEquals(Integer.valueOf(3), map.get(new Colliding(3)));
+        assertNull(map.get(new Colliding(4)));
+        assertFalse(map.containsKey(new Colliding(10)));
+    }
+
+    @Test
+    public void randomOperations() throws Exception {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentMap<Integer, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt(2000) * (random.nextBoolean() ? 1 << 20 : 1);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+}
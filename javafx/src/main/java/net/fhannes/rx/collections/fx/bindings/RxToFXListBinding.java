@@ -28,8 +28,9 @@ public class RxToFXListBinding<E> implements FXCollectionBinding<E, List<E>, Obs
         disposer.register(rxList.observable().subscribe(fxList::add));
         disposer.register(rxList.onAdded().subscribe(c -> fxList.add(c.getIndex(), c.getValue())));
         disposer.register(rxList.onRemoved().subscribe(c -> fxList.remove(c.getIndex())));
+        disposer.register(rxList.onCleared().subscribe(c -> fxList.clear()));
         disposer.register(rxList.onUpdatedChanged().subscribe(c ->
-                fxList.set(c.getNewValue().getIndex(), c.getOldValue().getValue())));
+                fxList.set(c.getNewValue().getIndex(), c.getNewValue().getValue())));
         disposer.register(rxList.onMoved().subscribe(c ->
                 fxList.add(c.getNewValue().getIndex(), fxList.remove(c.getOldValue().getIndex()))));
     }
@@ -41,8 +42,9 @@ public class RxToFXListBinding<E> implements FXCollectionBinding<E, List<E>, Obs
         disposer.register(rxList.observable().observeOn(scheduler).subscribe(fxList::add));
         disposer.register(rxList.onAdded().observeOn(scheduler).subscribe(c -> fxList.add(c.getIndex(), c.getValue())));
         disposer.register(rxList.onRemoved().observeOn(scheduler).subscribe(c -> fxList.remove(c.getIndex())));
+        disposer.register(rxList.onCleared().observeOn(scheduler).subscribe(c -> fxList.clear()));
         disposer.register(rxList.onUpdatedChanged().observeOn(scheduler).subscribe(c ->
-                fxList.set(c.getNewValue().getIndex(), c.getOldValue().getValue())));
+                fxList.set(c.getNewValue().getIndex(), c.getNewValue().getValue())));
         disposer.register(rxList.onMoved().observeOn(scheduler).subscribe(c ->
                 fxList.add(c.getNewValue().getIndex(), fxList.remove(c.getOldValue().getIndex()))));
     }
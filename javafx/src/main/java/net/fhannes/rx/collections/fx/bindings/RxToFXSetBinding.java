@@ -28,6 +28,7 @@ public class RxToFXSetBinding<E> implements FXCollectionBinding<E, Set<E>, Obser
         disposer.register(rxSet.observable().subscribe(fxSet::add));
         disposer.register(rxSet.onAdded().subscribe(fxSet::add));
         disposer.register(rxSet.onRemoved().subscribe(fxSet::remove));
+        disposer.register(rxSet.onCleared().subscribe(c -> fxSet.clear()));
     }
 
     public RxToFXSetBinding(Scheduler scheduler, ObservableSet<E> rxSet, javafx.collections.ObservableSet<E> fxSet) {
@@ -37,6 +38,7 @@ public class RxToFXSetBinding<E> implements FXCollectionBinding<E, Set<E>, Obser
         disposer.register(rxSet.observable().observeOn(scheduler).subscribe(fxSet::add));
         disposer.register(rxSet.onAdded().observeOn(scheduler).subscribe(fxSet::add));
         disposer.register(rxSet.onRemoved().observeOn(scheduler).subscribe(fxSet::remove));
+        disposer.register(rxSet.onCleared().observeOn(scheduler).subscribe(c -> fxSet.clear()));
     }
 
     @Override
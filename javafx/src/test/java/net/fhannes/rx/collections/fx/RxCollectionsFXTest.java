@@ -41,6 +41,8 @@ public class RxCollectionsFXTest {
         String str = "Hello world!";
         origList.add(str);
         assertEquals(fxList.get(0), str);
+        origList.clear();
+        assertEquals(0, fxList.size());
         listBinding.dispose();
     }
 